@@ -0,0 +1,31 @@
+package main.java.com.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Lance les benchmarks du module shopping-bench (module IntelliJ bench/shopping-bench.iml)
+ * Le débit de chaque benchmark est rapporté avec le profileur GC (gc.alloc.rate.norm = octets alloués
+ * par opération) ; les arguments de la ligne de commande JMH restent acceptés, par exemple
+ * "PanierBenchmark.appliquerRemise -p lignes=10000" pour ne mesurer qu'un cas
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions ligneDeCommande = new CommandLineOptions(args);
+
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(ligneDeCommande);
+        if (ligneDeCommande.getIncludes().isEmpty()) {
+            builder.include(BenchmarkRunner.class.getPackage().getName() + ".*");
+        }
+        Options options = builder.addProfiler(GCProfiler.class).build();
+
+        new Runner(options).run();
+    }
+}
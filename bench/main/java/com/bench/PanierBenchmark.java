@@ -0,0 +1,155 @@
+package main.java.com.bench;
+
+import main.java.com.controller.PanierController;
+import main.java.com.model.Article;
+import main.java.com.model.ArticleMarque;
+import main.java.com.model.LigneCommande;
+import main.java.com.model.Remise;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure du calcul des prix du panier, sur des paniers de 1, 100 et 10 000 lignes
+ * Aucun accès à la base : les articles sont construits en mémoire, avec un stock illimité
+ * Un article sur deux a un prix de gros (par lots de 10), un sur cinq un prix spécifique à la marque
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PanierBenchmark {
+    // Quantité achetée par ligne, au-delà du seuil de prix de gros
+    private static final int QUANTITE = 25;
+
+    @Param({"1", "100", "10000"})
+    private int lignes;
+
+    private List<ArticleMarque> articles;
+    private PanierController panier;
+    private Remise remise;
+    private LigneCommande ligne;
+    private ArticleMarque dernierArticle;
+    private int indexMilieu;
+    private int quantite;
+
+    @Setup(Level.Trial)
+    public void creerArticles() {
+        articles = new ArrayList<>(lignes);
+        for (int i = 1; i <= lignes; i++) {
+            Article article = new Article(i, "Article " + i, null, 10 + i % 90,
+                    i % 2 == 0 ? (double) (8 + i % 70) : null, i % 2 == 0 ? 10 : null, Integer.MAX_VALUE, null);
+            ArticleMarque articleMarque = new ArticleMarque(i, i, 1 + i % 20, i % 5 == 0 ? (double) (9 + i % 80) : null);
+            articleMarque.setArticle(article);
+            articles.add(articleMarque);
+        }
+        dernierArticle = articles.get(articles.size() - 1);
+        indexMilieu = lignes / 2;
+
+        Date maintenant = new Date();
+        remise = new Remise(1, "BENCH10", 10, 5, new Date(maintenant.getTime() - 86_400_000L),
+                new Date(maintenant.getTime() + 86_400_000L), 0);
+
+        ligne = new LigneCommande(1, 1, 1, QUANTITE, 12.5, 0);
+    }
+
+    /**
+     * Panier rempli à nouveau avant chaque itération, pour que les quantités ne dérivent pas
+     * Le contrôleur est construit une seule fois (il construit aussi ses contrôleurs et DAO)
+     */
+    @Setup(Level.Iteration)
+    public void remplirPanier() {
+        if (panier == null) {
+            panier = new PanierController();
+        }
+        panier.viderPanier();
+        remplir(panier);
+        quantite = QUANTITE;
+    }
+
+    private PanierController remplir(PanierController controller) {
+        for (ArticleMarque articleMarque : articles) {
+            controller.ajouterArticle(articleMarque, QUANTITE);
+        }
+        return controller;
+    }
+
+    /**
+     * Remplissage complet d'un panier vide (un ajouterArticle par ligne)
+     */
+    @Benchmark
+    public PanierController remplirPanierVide(PanierVide vide) {
+        return remplir(vide.panier);
+    }
+
+    /**
+     * Ajout d'une unité à la dernière ligne d'un panier plein (recherche de la ligne existante)
+     */
+    @Benchmark
+    public boolean ajouterArticleExistant() {
+        return panier.ajouterArticle(dernierArticle, 1);
+    }
+
+    /**
+     * Changement de quantité d'une ligne, qui recalcule le prix unitaire (prix de gros compris)
+     */
+    @Benchmark
+    public boolean modifierQuantite() {
+        // Alterne entre une quantité sous le seuil de gros et une quantité au-dessus
+        quantite = quantite == QUANTITE ? 7 : QUANTITE;
+        return panier.modifierQuantite(indexMilieu, quantite);
+    }
+
+    @Benchmark
+    public double getMontantTotal() {
+        return panier.getMontantTotal();
+    }
+
+    /**
+     * Application d'une remise : quantité totale, montant total puis Remise.calculerRemise
+     */
+    @Benchmark
+    public boolean appliquerRemise() {
+        return panier.appliquerRemise(remise);
+    }
+
+    @Benchmark
+    public double calculerRemise() {
+        return remise.calculerRemise(panier.getMontantTotal());
+    }
+
+    @Benchmark
+    public double calculerPrixTotal() {
+        ligne.calculerPrixTotal();
+        return ligne.getPrixTotal();
+    }
+
+    /**
+     * Panier de remplirPanierVide, construit une fois et vidé avant chaque appel, hors mesure
+     */
+    @State(Scope.Thread)
+    public static class PanierVide {
+        private final PanierController panier = new PanierController();
+
+        @Setup(Level.Invocation)
+        public void vider() {
+            panier.viderPanier();
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package main.java.com.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool borné de connexions JDBC
+ * Chaque opération emprunte une connexion et la rend au pool lors de son close(),
+ * ce qui permet à plusieurs threads de travailler en parallèle sur des connexions distinctes
+ */
+public class ConnectionPool {
+    // Une connexion inutilisée depuis moins longtemps n'est pas revalidée à l'emprunt
+    private static final long VALIDATION_BYPASS_MILLIS = 30_000;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final long HOUSEKEEPING_PERIOD_SECONDS = 30;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long acquisitionTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final int statementCacheSize;
+
+    // Connexions disponibles, la plus récemment rendue en tête
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final Semaphore permits;
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    /**
+     * Constructeur du pool
+     * @param url URL JDBC
+     * @param user Utilisateur de la base
+     * @param password Mot de passe de la base
+     * @param minSize Nombre minimal de connexions maintenues ouvertes
+     * @param maxSize Nombre maximal de connexions simultanées
+     * @param acquisitionTimeoutMillis Délai maximal d'attente d'une connexion libre
+     * @param idleTimeoutMillis Durée d'inactivité au-delà de laquelle une connexion est fermée
+     * @param leakThresholdMillis Durée d'emprunt au-delà de laquelle une fuite est signalée
+     * @param statementCacheSize Nombre de requêtes préparées conservées par connexion (0 pour désactiver)
+     */
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+                          long acquisitionTimeoutMillis, long idleTimeoutMillis, long leakThresholdMillis,
+                          int statementCacheSize) {
+        if (minSize < 0 || maxSize <= 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Tailles de pool invalides : min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.acquisitionTimeoutMillis = acquisitionTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep,
+                HOUSEKEEPING_PERIOD_SECONDS, HOUSEKEEPING_PERIOD_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Ouvre les connexions minimales
+     * @throws SQLException Si une connexion ne peut pas être établie
+     */
+    public void fill() throws SQLException {
+        while (!closed && totalConnections.get() < minSize) {
+            idle.offerLast(openConnection());
+        }
+    }
+
+    /**
+     * Emprunte une connexion au pool
+     * La connexion retournée doit être fermée par l'appelant, ce qui la rend au pool
+     * @return Une connexion utilisable
+     * @throws SQLException Si aucune connexion n'est disponible dans le délai imparti
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Le pool de connexions est fermé");
+        }
+
+        try {
+            if (!permits.tryAcquire(acquisitionTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTimeoutException("Aucune connexion disponible après " + acquisitionTimeoutMillis
+                        + " ms (" + borrowed.size() + "/" + maxSize + " empruntées)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Attente d'une connexion interrompue", e);
+        }
+
+        try {
+            PooledConnection pooled = takeIdleConnection();
+            if (pooled == null) {
+                pooled = openConnection();
+            }
+            borrowed.add(pooled);
+            return pooled.lend(leakThresholdMillis > 0 ? new Throwable("Connexion empruntée ici") : null);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Récupère une connexion libre encore valide, ou null s'il n'y en a pas
+     */
+    private PooledConnection takeIdleConnection() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (pooled.isUsable()) {
+                return pooled;
+            }
+            discard(pooled);
+        }
+        return null;
+    }
+
+    /**
+     * Rend une connexion au pool (appelé par le close() de la connexion empruntée)
+     */
+    private void release(PooledConnection pooled) {
+        if (!borrowed.remove(pooled)) {
+            return;
+        }
+
+        try {
+            if (closed || !pooled.reset()) {
+                discard(pooled);
+            } else {
+                idle.offerFirst(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private PooledConnection openConnection() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, user, password);
+        totalConnections.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    private void discard(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        pooled.closePhysical();
+    }
+
+    /**
+     * Tâche périodique : ferme les connexions inactives, complète jusqu'au minimum
+     * et signale les connexions empruntées depuis trop longtemps
+     */
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+
+        Iterator<PooledConnection> iterator = idle.descendingIterator();
+        while (iterator.hasNext() && totalConnections.get() > minSize) {
+            PooledConnection pooled = iterator.next();
+            if (now - pooled.lastUsed > idleTimeoutMillis && idle.remove(pooled)) {
+                discard(pooled);
+            }
+        }
+
+        try {
+            fill();
+        } catch (SQLException e) {
+            System.err.println("Erreur lors du remplissage du pool de connexions : " + e.getMessage());
+        }
+
+        if (leakThresholdMillis > 0) {
+            for (PooledConnection pooled : borrowed) {
+                if (!pooled.leakReported && now - pooled.borrowedAt > leakThresholdMillis) {
+                    pooled.leakReported = true;
+                    System.err.println("ATTENTION: connexion empruntée depuis " + (now - pooled.borrowedAt)
+                            + " ms sans être rendue au pool (fuite probable)");
+                    if (pooled.borrowSite != null) {
+                        pooled.borrowSite.printStackTrace();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Ferme le pool et toutes les connexions libres
+     * Les connexions encore empruntées sont fermées lorsqu'elles sont rendues
+     */
+    public void shutdown() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled);
+        }
+    }
+
+    /**
+     * @return Le nombre de connexions actuellement empruntées
+     */
+    public int getActiveConnections() {
+        return borrowed.size();
+    }
+
+    /**
+     * @return Le nombre de connexions libres dans le pool
+     */
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    /**
+     * @return Le nombre total de connexions physiques ouvertes
+     */
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    /**
+     * Connexion physique gérée par le pool
+     */
+    private final class PooledConnection {
+        private final Connection physical;
+        private final StatementCache statementCache;
+        private volatile long lastUsed = System.currentTimeMillis();
+        private volatile long borrowedAt;
+        private volatile Throwable borrowSite;
+        private volatile boolean leakReported;
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statementCache = new StatementCache(physical, statementCacheSize);
+        }
+
+        /**
+         * Crée le proxy remis à l'emprunteur
+         * Un nouveau proxy est créé à chaque emprunt pour qu'une référence conservée
+         * après close() ne puisse pas agir sur la connexion prêtée à quelqu'un d'autre
+         */
+        private Connection lend(Throwable site) {
+            borrowedAt = System.currentTimeMillis();
+            borrowSite = site;
+            leakReported = false;
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] {Connection.class}, new Lease(this));
+        }
+
+        private boolean isUsable() {
+            try {
+                if (physical.isClosed()) {
+                    return false;
+                }
+                return System.currentTimeMillis() - lastUsed < VALIDATION_BYPASS_MILLIS
+                        || physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Remet la connexion dans un état neutre avant de la rendre au pool
+         * @return false si la connexion n'est plus réutilisable
+         */
+        private boolean reset() {
+            lastUsed = System.currentTimeMillis();
+            borrowSite = null;
+            try {
+                if (physical.isClosed()) {
+                    return false;
+                }
+                if (!physical.getAutoCommit()) {
+                    // Transaction laissée ouverte par l'emprunteur : on l'annule
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                physical.clearWarnings();
+                return true;
+            } catch (SQLException e) {
+                System.err.println("Connexion rejetée lors du retour au pool : " + e.getMessage());
+                return false;
+            }
+        }
+
+        private void closePhysical() {
+            statementCache.closeAll();
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                System.err.println("Erreur lors de la fermeture d'une connexion du pool : " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Emprunt d'une connexion : intercepte close() pour rendre la connexion au lieu de la fermer
+     */
+    private final class Lease implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean returned;
+
+        private Lease(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                default:
+                    break;
+            }
+
+            if (returned) {
+                throw new SQLException("Connexion déjà rendue au pool");
+            }
+
+            // prepareStatement(sql) et prepareStatement(sql, autoGeneratedKeys) passent par le cache
+            if ("prepareStatement".equals(method.getName()) && args != null) {
+                if (args.length == 1) {
+                    return pooled.statementCache.prepare((Connection) proxy, (String) args[0], -1);
+                }
+                if (args.length == 2 && args[1] instanceof Integer) {
+                    return pooled.statementCache.prepare((Connection) proxy, (String) args[0], (Integer) args[1]);
+                }
+            }
+
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
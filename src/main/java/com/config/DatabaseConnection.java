@@ -1,30 +1,39 @@
 package main.java.com.config;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 /**
  * Classe de connexion à la base de données
- * Utilise le pattern Singleton pour garantir une seule instance de connexion
+ * Utilise le pattern Singleton pour garantir une seule instance du pool de connexions
  */
 public class DatabaseConnection  {
     private static DatabaseConnection instance ;
-    private Connection connection;
+    private final ConnectionPool pool;
 
     // Configuration de la base de données avec paramètres supplémentaires pour résoudre les problèmes courants
-    private static final String URL = "jdbc:mysql://localhost:3306/shopping_db?useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC&useUnicode=true&characterEncoding=UTF-8";
+    private static final String URL = "jdbc:mysql://localhost:3306/shopping_db?useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC&useUnicode=true&characterEncoding=UTF-8&useServerPrepStmts=true&rewriteBatchedStatements=true&useCursorFetch=true";
     private static final String USER = "root"; // Adaptez selon votre configuration
     private static final String PASSWORD = ""; // Adaptez selon votre configuration
 
+    // Configuration du pool de connexions
+    private static final int POOL_MIN_SIZE = 2;
+    private static final int POOL_MAX_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    private static final long POOL_ACQUISITION_TIMEOUT_MS = 10_000;
+    private static final long POOL_IDLE_TIMEOUT_MS = 5 * 60_000;
+    private static final long POOL_LEAK_THRESHOLD_MS = 60_000;
+    private static final int STATEMENT_CACHE_SIZE = 64;
+
     private DatabaseConnection() {
+        this.pool = new ConnectionPool(URL, USER, PASSWORD, POOL_MIN_SIZE, POOL_MAX_SIZE,
+                POOL_ACQUISITION_TIMEOUT_MS, POOL_IDLE_TIMEOUT_MS, POOL_LEAK_THRESHOLD_MS, STATEMENT_CACHE_SIZE);
         try {
             // Pour MySQL 8.0+, utilisez com.mysql.cj.jdbc.Driver
             Class.forName("com.mysql.cj.jdbc.Driver");
             System.out.println("Driver MySQL chargé avec succès");
 
-            this.connection = DriverManager.getConnection(URL, USER, PASSWORD);
-            System.out.println("Connexion à la base de données établie avec succès");
+            pool.fill();
+            System.out.println("Pool de connexions à la base de données initialisé (max " + POOL_MAX_SIZE + " connexions)");
         } catch (ClassNotFoundException e) {
             System.err.println("ERREUR: Pilote MySQL non trouvé!");
             System.err.println("Assurez-vous d'avoir ajouté le connecteur MySQL à votre projet");
@@ -52,31 +61,22 @@ public class DatabaseConnection  {
     }
 
     /**
-     * Obtient une connexion à la base de données
-     * Si la connexion est fermée ou null, tente de la rétablir
-     * @return La connexion à la base de données
+     * Emprunte une connexion au pool
+     * La connexion doit être fermée après usage (try-with-resources), ce qui la rend au pool
+     * @return Une connexion à la base de données
+     * @throws SQLException Si aucune connexion n'a pu être obtenue
      */
-    public Connection getConnection() {
-        try {
-            if (connection == null || connection.isClosed()) {
-                System.out.println("Reconnexion à la base de données...");
-                this.connection = DriverManager.getConnection(URL, USER, PASSWORD);
-                System.out.println("Reconnexion réussie");
-            }
-        } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération de la connexion : " + e.getMessage());
-            e.printStackTrace();
-        }
-        return connection;
+    public Connection getConnection() throws SQLException {
+        return pool.borrow();
     }
 
     /**
-     * Vérifie si la connexion est valide
-     * @return true si la connexion est valide, false sinon
+     * Vérifie si la base de données est joignable
+     * @return true si une connexion valide a pu être obtenue, false sinon
      */
     public boolean isConnectionValid() {
-        try {
-            return connection != null && !connection.isClosed() && connection.isValid(5);
+        try (Connection connection = pool.borrow()) {
+            return connection.isValid(5);
         } catch (SQLException e) {
             System.err.println("Erreur lors de la vérification de la connexion : " + e.getMessage());
             return false;
@@ -84,24 +84,35 @@ public class DatabaseConnection  {
     }
 
     /**
-     * Ferme la connexion à la base de données
+     * Retourne le pool de connexions (pour la supervision)
+     * @return Le pool de connexions
+     */
+    public ConnectionPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Résume l'efficacité du cache de requêtes préparées
+     * @return Les compteurs de succès, d'échecs et d'évictions du cache
+     */
+    public String getStatementCacheStats() {
+        return String.format("Cache de requêtes : %d succès, %d échecs, %d évictions (taux %.1f %%)",
+                StatementCache.getHitCount(), StatementCache.getMissCount(),
+                StatementCache.getEvictionCount(), StatementCache.getHitRatio() * 100);
+    }
+
+    /**
+     * Ferme le pool et les connexions à la base de données
      */
     public void closeConnection() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("Connexion à la base de données fermée");
-            }
-        } catch (SQLException e) {
-            System.err.println("Erreur lors de la fermeture de la connexion : " + e.getMessage());
-            e.printStackTrace();
-        }
+        pool.shutdown();
+        System.out.println("Pool de connexions à la base de données fermé");
     }
 
     /**
      * Réinitialise l'instance pour forcer une nouvelle connexion
      */
-    public static void resetInstance() {
+    public static synchronized void resetInstance() {
         if (instance != null) {
             instance.closeConnection();
             instance = null;
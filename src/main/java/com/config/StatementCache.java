@@ -0,0 +1,258 @@
+package main.java.com.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache LRU de requêtes préparées, propre à une connexion physique du pool
+ * Les DAO continuent d'appeler prepareStatement()/close() : le close() remet la requête
+ * dans le cache au lieu de la fermer, et le prochain prepareStatement() avec le même SQL
+ * la réutilise sans nouvelle préparation
+ */
+public class StatementCache {
+    // Compteurs globaux, tous caches confondus, pour ajuster la taille du cache
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+    private static final AtomicLong EVICTIONS = new AtomicLong();
+
+    private final Connection physical;
+    private final int maxSize;
+    private final LinkedHashMap<Key, CachedStatement> statements;
+
+    /**
+     * Constructeur du cache
+     * @param physical La connexion physique sur laquelle les requêtes sont préparées
+     * @param maxSize Nombre maximal de requêtes conservées
+     */
+    StatementCache(Connection physical, int maxSize) {
+        this.physical = physical;
+        this.maxSize = maxSize;
+        this.statements = new LinkedHashMap<Key, CachedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CachedStatement> eldest) {
+                if (size() > StatementCache.this.maxSize) {
+                    EVICTIONS.incrementAndGet();
+                    eldest.getValue().evict();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Retourne une requête préparée pour ce SQL, depuis le cache si possible
+     * @param owner La connexion empruntée, renvoyée par getConnection() de la requête
+     * @param sql Le texte SQL
+     * @param autoGeneratedKeys Statement.RETURN_GENERATED_KEYS ou Statement.NO_GENERATED_KEYS, -1 si non précisé
+     * @return La requête préparée
+     * @throws SQLException Si la préparation échoue
+     */
+    PreparedStatement prepare(Connection owner, String sql, int autoGeneratedKeys) throws SQLException {
+        if (maxSize <= 0) {
+            MISSES.incrementAndGet();
+            return doPrepare(sql, autoGeneratedKeys);
+        }
+
+        Key key = new Key(sql, autoGeneratedKeys);
+        CachedStatement cached = statements.get(key);
+        if (cached != null && !cached.inUse) {
+            HITS.incrementAndGet();
+            return cached.checkout(owner);
+        }
+
+        MISSES.incrementAndGet();
+        PreparedStatement statement = doPrepare(sql, autoGeneratedKeys);
+        if (cached != null) {
+            // Même requête déjà ouverte sur cette connexion : exemplaire hors cache
+            return statement;
+        }
+
+        cached = new CachedStatement(statement);
+        statements.put(key, cached);
+        return cached.checkout(owner);
+    }
+
+    private PreparedStatement doPrepare(String sql, int autoGeneratedKeys) throws SQLException {
+        return autoGeneratedKeys < 0 ? physical.prepareStatement(sql) : physical.prepareStatement(sql, autoGeneratedKeys);
+    }
+
+    /**
+     * Ferme toutes les requêtes du cache
+     */
+    void closeAll() {
+        for (CachedStatement cached : statements.values()) {
+            cached.evict();
+        }
+        statements.clear();
+    }
+
+    /**
+     * @return Le nombre de requêtes servies depuis un cache
+     */
+    public static long getHitCount() {
+        return HITS.get();
+    }
+
+    /**
+     * @return Le nombre de requêtes qui ont dû être préparées
+     */
+    public static long getMissCount() {
+        return MISSES.get();
+    }
+
+    /**
+     * @return Le nombre de requêtes sorties d'un cache plein
+     */
+    public static long getEvictionCount() {
+        return EVICTIONS.get();
+    }
+
+    /**
+     * @return La proportion de requêtes servies depuis un cache (0 si aucune requête)
+     */
+    public static double getHitRatio() {
+        long hits = HITS.get();
+        long total = hits + MISSES.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Clé du cache : texte SQL et mode de récupération des clés générées
+     */
+    private static final class Key {
+        private final String sql;
+        private final int autoGeneratedKeys;
+
+        private Key(String sql, int autoGeneratedKeys) {
+            this.sql = sql;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return autoGeneratedKeys == other.autoGeneratedKeys && sql.equals(other.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * sql.hashCode() + autoGeneratedKeys;
+        }
+    }
+
+    /**
+     * Requête préparée conservée dans le cache
+     */
+    private static final class CachedStatement {
+        private final PreparedStatement statement;
+        private boolean inUse;
+        private boolean evicted;
+
+        private CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        private PreparedStatement checkout(Connection owner) {
+            inUse = true;
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] {PreparedStatement.class}, new Handle(this, owner));
+        }
+
+        /**
+         * Rend la requête au cache dans un état neutre
+         */
+        private void checkin() {
+            inUse = false;
+            if (evicted) {
+                closeQuietly();
+                return;
+            }
+            try {
+                statement.clearParameters();
+                statement.clearBatch();
+                statement.clearWarnings();
+            } catch (SQLException e) {
+                evicted = true;
+                closeQuietly();
+            }
+        }
+
+        private void evict() {
+            evicted = true;
+            if (!inUse) {
+                closeQuietly();
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                System.err.println("Erreur lors de la fermeture d'une requête préparée : " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Référence remise au DAO : close() rend la requête au cache
+     */
+    private static final class Handle implements InvocationHandler {
+        private final CachedStatement cached;
+        private final Connection owner;
+        private boolean closed;
+
+        private Handle(CachedStatement cached, Connection owner) {
+            this.cached = cached;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        cached.checkin();
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || cached.statement.isClosed();
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + cached.statement + "]";
+                default:
+                    break;
+            }
+
+            if (closed) {
+                throw new SQLException("Requête préparée déjà rendue au cache");
+            }
+
+            try {
+                return method.invoke(cached.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -9,11 +9,13 @@ import main.java.com.model.Marque;
 import main.java.com.model.Utilisateur;
 import main.java.com.util.PasswordHasher;
 
+import java.util.Collections;
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Set;
 
 /**
  * Contrôleur pour gérer les opérations liées aux administrateurs
@@ -24,31 +26,33 @@ public class AdministrateurController {
     private MarqueDAO marqueDAO;
 
     // Map des permissions par rôle
-    private static final Map<String, String[]> ROLE_PERMISSIONS = new HashMap<>();
+    private static final Map<String, Set<Permission>> ROLE_PERMISSIONS = new HashMap<>();
+
+    // Permissions résolues par ID d'utilisateur, conservées pour la session
+    // (un rôle modifié par updateAdministrateurRole en est retiré)
+    private static final Map<Integer, Set<Permission>> PERMISSIONS_UTILISATEURS = new HashMap<>();
+    private static long generationPermissions;
 
     // Initialisation des permissions
     static {
         // Super admin a accès à tout
-        ROLE_PERMISSIONS.put("super_admin", new String[] {
-                "gestion_admin", "gestion_articles", "gestion_clients",
-                "gestion_remises", "stats", "reporting"
-        });
+        ROLE_PERMISSIONS.put("super_admin", Collections.unmodifiableSet(EnumSet.allOf(Permission.class)));
 
         // Admin standard a accès à tout sauf la gestion des administrateurs
-        ROLE_PERMISSIONS.put("standard", new String[] {
-                "gestion_articles", "gestion_clients", "gestion_remises",
-                "stats", "reporting"
-        });
+        ROLE_PERMISSIONS.put("standard", Collections.unmodifiableSet(EnumSet.of(
+                Permission.GESTION_ARTICLES, Permission.GESTION_CLIENTS, Permission.GESTION_REMISES,
+                Permission.STATS, Permission.REPORTING
+        )));
 
         // Admin commercial a accès aux ventes et clients
-        ROLE_PERMISSIONS.put("commercial", new String[] {
-                "gestion_clients", "gestion_remises", "stats", "reporting"
-        });
+        ROLE_PERMISSIONS.put("commercial", Collections.unmodifiableSet(EnumSet.of(
+                Permission.GESTION_CLIENTS, Permission.GESTION_REMISES, Permission.STATS, Permission.REPORTING
+        )));
 
         // Admin inventaire a accès aux articles
-        ROLE_PERMISSIONS.put("inventaire", new String[] {
-                "gestion_articles"
-        });
+        ROLE_PERMISSIONS.put("inventaire", Collections.unmodifiableSet(EnumSet.of(
+                Permission.GESTION_ARTICLES
+        )));
     }
 
     /**
@@ -67,50 +71,112 @@ public class AdministrateurController {
      * @return true si l'accès est autorisé, false sinon
      */
     public boolean hasAccess(int adminId, String permission) {
-        Administrateur admin = administrateurDAO.findById(adminId);
-        if (admin == null) {
+        Permission perm = Permission.fromCode(permission);
+        if (perm == null) {
             return false;
         }
 
-        String role = admin.getRole();
+        Administrateur admin = administrateurDAO.findById(adminId);
+        return admin != null && getRolePermissions(admin.getRole()).contains(perm);
+    }
+
+    /**
+     * Vérifie si un utilisateur a accès à une fonctionnalité
+     * @param userId ID de l'utilisateur
+     * @param permission La permission à vérifier
+     * @return true si l'accès est autorisé, false sinon
+     */
+    public boolean userHasAccess(int userId, String permission) {
+        Permission perm = Permission.fromCode(permission);
+        return perm != null && userHasAccess(userId, perm);
+    }
+
+    /**
+     * Vérifie si un utilisateur a accès à une fonctionnalité
+     * Les permissions sont lues en base à la première vérification, puis servies depuis le cache
+     * @param userId ID de l'utilisateur
+     * @param permission La permission à vérifier
+     * @return true si l'accès est autorisé, false sinon
+     */
+    public boolean userHasAccess(int userId, Permission permission) {
+        return getPermissions(userId).contains(permission);
+    }
 
-        // Les permissions du rôle
-        String[] permissions = ROLE_PERMISSIONS.get(role);
+    /**
+     * Récupère les permissions d'un utilisateur
+     * @param userId ID de l'utilisateur
+     * @return Les permissions (vide si l'utilisateur n'est pas un administrateur)
+     */
+    public Set<Permission> getPermissions(int userId) {
+        long generation;
+        synchronized (PERMISSIONS_UTILISATEURS) {
+            Set<Permission> permissions = PERMISSIONS_UTILISATEURS.get(userId);
+            if (permissions != null) {
+                return permissions;
+            }
+            generation = generationPermissions;
+        }
+
+        Set<Permission> permissions = resoudrePermissions(userId);
         if (permissions == null) {
-            return false;
+            // Lecture sans réponse (erreur SQL ?) : aucun accès cette fois, mais rien n'est mis en cache
+            return Collections.emptySet();
         }
 
-        // Vérifie si la permission est dans la liste
-        for (String perm : permissions) {
-            if (perm.equals(permission)) {
-                return true;
+        // Un rôle modifié pendant la lecture ne doit pas laisser en cache les anciennes permissions
+        synchronized (PERMISSIONS_UTILISATEURS) {
+            if (generation == generationPermissions) {
+                PERMISSIONS_UTILISATEURS.put(userId, permissions);
             }
         }
+        return permissions;
+    }
 
-        return false;
+    /**
+     * Oublie les permissions mises en cache (à la déconnexion, par exemple)
+     */
+    public static void clearPermissionsCache() {
+        synchronized (PERMISSIONS_UTILISATEURS) {
+            generationPermissions++;
+            PERMISSIONS_UTILISATEURS.clear();
+        }
+    }
+
+    private static void invaliderPermissions(int userId) {
+        synchronized (PERMISSIONS_UTILISATEURS) {
+            generationPermissions++;
+            PERMISSIONS_UTILISATEURS.remove(userId);
+        }
     }
 
     /**
-     * Vérifie si un utilisateur a accès à une fonctionnalité
-     * @param userId ID de l'utilisateur
-     * @param permission La permission à vérifier
-     * @return true si l'accès est autorisé, false sinon
+     * Lit en base le rôle d'un utilisateur et en déduit ses permissions
+     * @return Les permissions, vides pour un utilisateur lu en base qui n'est pas admin ;
+     *         null si l'utilisateur ou l'admin n'a pas pu être lu (les DAO renvoient null
+     *         aussi bien pour une ligne absente que pour une erreur SQL)
      */
-    public boolean userHasAccess(int userId, String permission) {
+    private Set<Permission> resoudrePermissions(int userId) {
         // Vérifie que l'utilisateur est bien un admin
         Utilisateur utilisateur = utilisateurDAO.findById(userId);
-        if (utilisateur == null || !"admin".equals(utilisateur.getType())) {
-            return false;
+        if (utilisateur == null) {
+            return null;
+        }
+        if (!"admin".equals(utilisateur.getType())) {
+            return Collections.emptySet();
         }
 
         // Récupère l'admin correspondant
         Administrateur admin = administrateurDAO.findByUtilisateurId(userId);
         if (admin == null) {
-            return false;
+            return null;
         }
 
-        // Vérifie la permission
-        return hasAccess(admin.getId(), permission);
+        return getRolePermissions(admin.getRole());
+    }
+
+    private static Set<Permission> getRolePermissions(String role) {
+        Set<Permission> permissions = role != null ? ROLE_PERMISSIONS.get(role) : null;
+        return permissions != null ? permissions : Collections.<Permission>emptySet();
     }
 
     /**
@@ -157,25 +223,28 @@ public class AdministrateurController {
     }
 
     /**
-     * Génère un nom de marque unique basé sur le nom et prénom
+     * Génère un nom de marque unique basé sur le nom et prénom, et le réserve
      *
      * @param nom Nom de l'admin
      * @param prenom Prénom de l'admin
-     * @return Un nom de marque unique
+     * @return La marque créée sous un nom unique, null si échec
      */
-    private String generateUniqueMarqueName(String nom, String prenom) {
-        // Base du nom de marque
-        String baseName = nom + " " + prenom;
-
-        // Vérifier si une marque avec ce nom existe déjà
-        Marque existingMarque = marqueDAO.findByNom(baseName);
-        if (existingMarque == null) {
-            return baseName;
-        }
+    private Marque generateUniqueMarqueName(String nom, String prenom) {
+        return reserverMarque(nom + " " + prenom);
+    }
 
-        // Si le nom existe déjà, ajouter un suffixe unique
-        String uniqueName = baseName + " " + UUID.randomUUID().toString().substring(0, 8);
-        return uniqueName;
+    /**
+     * Réserve un nom de marque en créant la marque (MarqueDAO.createAvecNomUnique)
+     * L'unicité est arbitrée par la clé unique de la table marque, sans lecture préalable :
+     * deux inscriptions simultanées ne peuvent pas obtenir le même nom
+     *
+     * @param nom Le nom souhaité ; un suffixe est ajouté s'il est déjà pris
+     * @return La marque créée, dont le nom est celui retenu, null si échec
+     */
+    private Marque reserverMarque(String nom) {
+        Marque marque = new Marque();
+        marque.setNom(nom);
+        return marqueDAO.createAvecNomUnique(marque) ? marque : null;
     }
 
     /**
@@ -209,26 +278,26 @@ public class AdministrateurController {
         utilisateur.setTelephone(telephone);
         utilisateur.setDateInscription(new Date());
 
-        // Si aucune marque n'est spécifiée ou si la marque est vide, générer un nom unique
-        if (marque == null || marque.trim().isEmpty()) {
-            marque = generateUniqueMarqueName(nom, prenom);
-        } else {
-            // Vérifier si la marque existe déjà et la rendre unique si nécessaire
-            Marque existingMarque = marqueDAO.findByNom(marque);
-            if (existingMarque != null) {
-                marque = marque + " " + UUID.randomUUID().toString().substring(0, 8);
-            }
+        // Si aucune marque n'est spécifiée ou si la marque est vide, générer un nom unique ;
+        // sinon la marque est rendue unique si le nom est déjà pris
+        Marque marqueReservee = (marque == null || marque.trim().isEmpty())
+                ? generateUniqueMarqueName(nom, prenom)
+                : reserverMarque(marque);
+        if (marqueReservee == null) {
+            return -1;
         }
 
         // Crée l'administrateur
         Administrateur administrateur = new Administrateur();
         administrateur.setRole(role);
-        administrateur.setMarque(marque);
+        administrateur.setMarque(marqueReservee.getNom());
 
         // Utilise la méthode createWithUtilisateur et vérifie le résultat
         if (administrateurDAO.createWithUtilisateur(utilisateur, administrateur)) {
             return administrateur.getId(); // Retourne l'ID de l'administrateur créé
         } else {
+            // Libère le nom réservé
+            marqueDAO.delete(marqueReservee.getId());
             return -1; // Échec
         }
     }
@@ -261,7 +330,9 @@ public class AdministrateurController {
         Administrateur administrateur = administrateurDAO.findById(adminId);
         if (administrateur != null) {
             administrateur.setRole(role);
-            return administrateurDAO.update(administrateur);
+            boolean updated = administrateurDAO.update(administrateur);
+            invaliderPermissions(administrateur.getUtilisateurId());
+            return updated;
         }
         return false;
     }
@@ -276,14 +347,19 @@ public class AdministrateurController {
     public boolean updateAdministrateurMarque(int adminId, String marque) {
         Administrateur administrateur = administrateurDAO.findById(adminId);
         if (administrateur != null) {
-            // Vérifier si la marque existe déjà et la rendre unique si nécessaire
-            Marque existingMarque = marqueDAO.findByNom(marque);
-            if (existingMarque != null) {
-                marque = marque + " " + UUID.randomUUID().toString().substring(0, 8);
+            // Rend la marque unique si le nom est déjà pris
+            Marque reservee = reserverMarque(marque);
+            if (reservee == null) {
+                return false;
             }
 
-            administrateur.setMarque(marque);
-            return administrateurDAO.update(administrateur);
+            administrateur.setMarque(reservee.getNom());
+            if (administrateurDAO.update(administrateur)) {
+                return true;
+            }
+            // Libère le nom réservé
+            marqueDAO.delete(reservee.getId());
+            return false;
         }
         return false;
     }
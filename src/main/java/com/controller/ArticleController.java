@@ -1,6 +1,8 @@
 package main.java.com.controller;
 
 import main.java.com.dao.ArticleDAO;
+import main.java.com.dao.ArticleSort;
+import main.java.com.dao.CachedDAO;
 import main.java.com.dao.DAOFactory;
 import main.java.com.model.Article;
 
@@ -11,10 +13,15 @@ import java.util.List;
  * Contrôleur pour gérer les opérations liées aux articles
  */
 public class ArticleController {
+    // Nombre maximal d'articles renvoyés par une recherche
+    private static final int MAX_RESULTATS_RECHERCHE = 500;
+
     private ArticleDAO articleDAO;
+    private CachedDAO<Article> articleCache;
 
     public ArticleController() {
         this.articleDAO = DAOFactory.getArticleDAO();
+        this.articleCache = DAOFactory.getCachedArticleDAO();
     }
 
     /**
@@ -25,22 +32,33 @@ public class ArticleController {
         return articleDAO.findAll();
     }
 
+    /**
+     * Récupère une page du catalogue
+     * @param apres Dernier article déjà chargé (null pour la première page)
+     * @param limit Taille de la page
+     * @param sort Ordre de tri
+     * @return Liste des articles de la page
+     */
+    public List<Article> getArticlesPage(Article apres, int limit, ArticleSort sort) {
+        return articleDAO.findPage(apres, limit, sort);
+    }
+
     /**
      * Récupère un article par son ID
      * @param id L'identifiant de l'article
      * @return L'article correspondant ou null
      */
     public Article getArticleById(int id) {
-        return articleDAO.findById(id);
+        return articleCache.findById(id);
     }
 
     /**
-     * Recherche des articles par nom
+     * Recherche des articles par nom ou description
      * @param nom Le nom ou partie du nom à rechercher
-     * @return Liste des articles correspondants
+     * @return Liste des articles correspondants, les plus pertinents en premier
      */
     public List<Article> searchArticlesByName(String nom) {
-        return articleDAO.findByNom(nom);
+        return articleDAO.search(nom, MAX_RESULTATS_RECHERCHE);
     }
 
     /**
@@ -67,7 +85,7 @@ public class ArticleController {
      * @return true si l'opération a réussi, false sinon
      */
     public boolean updateArticle(Article article) {
-        return articleDAO.update(article);
+        return articleCache.update(article);
     }
 
     /**
@@ -76,7 +94,7 @@ public class ArticleController {
      * @return true si l'opération a réussi, false sinon
      */
     public boolean deleteArticle(int articleId) {
-        return articleDAO.delete(articleId);
+        return articleCache.delete(articleId);
     }
 
     /**
@@ -86,7 +104,7 @@ public class ArticleController {
      * @return Le prix calculé ou -1 si l'article n'est pas trouvé
      */
     public double calculatePrice(int articleId, int quantite) {
-        Article article = articleDAO.findById(articleId);
+        Article article = articleCache.findById(articleId);
         if (article != null) {
             return article.calculerPrix(quantite);
         }
@@ -95,6 +113,7 @@ public class ArticleController {
 
     /**
      * Vérifie si un article est disponible en stock
+     * Le stock est lu en base, jamais dans le cache
      * @param articleId L'identifiant de l'article
      * @param quantite La quantité demandée
      * @return true si l'article est disponible en quantité suffisante
@@ -111,11 +130,6 @@ public class ArticleController {
      * @return true si l'opération a réussi, false sinon
      */
     public boolean updateStock(int articleId, int quantite) {
-        Article article = articleDAO.findById(articleId);
-        if (article != null && article.getStock() >= quantite) {
-            article.setStock(article.getStock() - quantite);
-            return articleDAO.update(article);
-        }
-        return false;
+        return articleDAO.decrementStock(articleId, quantite);
     }
 }
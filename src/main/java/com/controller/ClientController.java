@@ -35,6 +35,18 @@ public class ClientController {
         return clientDAO.findAll();
     }
 
+    /**
+     * Récupère une page de clients avec leur utilisateur associé
+     *
+     * @param afterId   Identifiant du dernier client déjà chargé (0 pour la première page)
+     * @param limit     Taille de la page
+     * @param recherche Texte recherché dans le nom, le prénom ou l'email (null pour tous)
+     * @return Liste des clients de la page, utilisateur renseigné
+     */
+    public List<Client> getClientsPage(int afterId, int limit, String recherche) {
+        return clientDAO.findPageWithUtilisateur(afterId, limit, recherche);
+    }
+
     /**
      * Récupère un client par son ID
      *
@@ -7,22 +7,22 @@ import main.java.com.model.ArticleMarque;
 import main.java.com.model.Commande;
 import main.java.com.model.LigneCommande;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Contrôleur pour gérer les opérations liées aux commandes
  */
 public class CommandeController {
     private CommandeDAO commandeDAO;
-    private ArticleController articleController;
 //
     /**
      * Constructeur du contrôleur de commande
      */
     public CommandeController() {
         this.commandeDAO = DAOFactory.getCommandeDAO();
-        this.articleController = new ArticleController();
     }
 
     /**
@@ -60,6 +60,15 @@ public class CommandeController {
         return commandeDAO.findLignesCommande(commandeId);
     }
 
+    /**
+     * Récupère les lignes de plusieurs commandes, en un minimum d'allers-retours
+     * @param commandeIds Les identifiants des commandes
+     * @return Les lignes groupées par identifiant de commande
+     */
+    public Map<Integer, List<LigneCommande>> getLignesCommandes(Collection<Integer> commandeIds) {
+        return commandeDAO.findLignesForCommandes(commandeIds);
+    }
+
     /**
      * Crée une nouvelle commande
      * @param clientId L'identifiant du client
@@ -95,6 +104,11 @@ public class CommandeController {
      * @return true si l'opération a réussi, false sinon
      */
     public boolean updateCommandeStatus(int commandeId, String statut) {
+        // L'annulation restitue le stock et retire la commande des statistiques
+        if ("annulee".equals(statut)) {
+            return cancelCommande(commandeId);
+        }
+
         Commande commande = commandeDAO.findById(commandeId);
         if (commande != null) {
             commande.setStatut(statut);
@@ -105,34 +119,21 @@ public class CommandeController {
 
     /**
      * Annule une commande
+     * Le statut, les statistiques et le stock sont mis à jour dans une même transaction
      * @param commandeId L'identifiant de la commande
      * @return true si l'opération a réussi, false sinon
      */
     public boolean cancelCommande(int commandeId) {
-        Commande commande = commandeDAO.findById(commandeId);
-        if (commande != null && !"annulee".equals(commande.getStatut())) {
-            // Change le statut
-            commande.setStatut("annulee");
-
-            // Récupère les lignes de commande
-            List<LigneCommande> lignes = commandeDAO.findLignesCommande(commandeId);
-
-            // Restitue les articles au stock
-            for (LigneCommande ligne : lignes) {
-                ArticleMarque articleMarque = ligne.getArticleMarque();
-                if (articleMarque != null) {
-                    Article article = articleMarque.getArticle();
-                    if (article != null) {
-                        // Remet la quantité en stock
-                        article.setStock(article.getStock() + ligne.getQuantite());
-                        articleController.updateArticle(article);
-                    }
-                }
-            }
+        return commandeDAO.annulerCommande(commandeId);
+    }
 
-            return commandeDAO.update(commande);
-        }
-        return false;
+    /**
+     * Annule plusieurs commandes (expiration des commandes impayées, par exemple)
+     * @param commandeIds Les identifiants des commandes
+     * @return Les identifiants des commandes effectivement annulées (celles déjà annulées sont ignorées)
+     */
+    public List<Integer> cancelCommandes(Collection<Integer> commandeIds) {
+        return commandeDAO.annulerCommandes(commandeIds);
     }
 
     /**
@@ -157,28 +158,12 @@ public class CommandeController {
 
     /**
      * Décremente le stock des articles pour une commande
+     * La décrémentation est atomique et conditionnée au stock disponible en base :
+     * si un article est insuffisant, aucun stock n'est modifié
      * @param lignesCommande Liste des lignes de commande
      * @return true si l'opération a réussi, false sinon
      */
     public boolean decrementStock(List<LigneCommande> lignesCommande) {
-        for (LigneCommande ligne : lignesCommande) {
-            ArticleMarque articleMarque = ligne.getArticleMarque();
-            if (articleMarque != null) {
-                Article article = articleMarque.getArticle();
-                if (article != null) {
-                    // Vérifie la disponibilité
-                    if (article.getStock() < ligne.getQuantite()) {
-                        return false;
-                    }
-
-                    // Décremente le stock
-                    article.setStock(article.getStock() - ligne.getQuantite());
-                    if (!articleController.updateArticle(article)) {
-                        return false;
-                    }
-                }
-            }
-        }
-        return true;
+        return commandeDAO.reserverStock(lignesCommande);
     }
 }
@@ -5,6 +5,7 @@ import main.java.com.dao.PaiementDAO;
 import main.java.com.model.Commande;
 import main.java.com.model.Paiement;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
@@ -19,7 +20,7 @@ public class PaiementController {
      * Constructeur du contrôleur de paiement
      */
     public PaiementController() {
-        this.paiementDAO = new PaiementDAO();
+        this.paiementDAO = DAOFactory.getPaiementDAO();
         this.commandeController = new CommandeController();
     }
 
@@ -79,23 +80,23 @@ public class PaiementController {
     }
 
     /**
-     * Simule le traitement de paiement (délai d'attente puis validation)
+     * Traite un paiement : le paiement est validé et sa commande passe au statut validee,
+     * dans une même transaction
      * @param paiementId L'identifiant du paiement
-     * @return true si le paiement est validé, false sinon
+     * @return true si le paiement est validé, false s'il n'était pas en attente ou si sa commande
+     *         n'était pas en cours
      */
     public boolean traiterPaiement(int paiementId) {
-        Paiement paiement = paiementDAO.findById(paiementId);
-        if (paiement == null) {
-            return false;
-        }
-
-        // Mise à jour du statut en "valide"
-        if (paiementDAO.updateStatus(paiementId, "valide")) {
-            // Mise à jour du statut de la commande en "validee"
-            return commandeController.updateCommandeStatus(paiement.getCommandeId(), "validee");
-        }
+        return paiementDAO.reglerPaiement(paiementId);
+    }
 
-        return false;
+    /**
+     * Traite plusieurs paiements (rapprochement bancaire, par exemple)
+     * @param paiementIds Les identifiants des paiements
+     * @return Les identifiants des paiements validés
+     */
+    public List<Integer> traiterPaiements(Collection<Integer> paiementIds) {
+        return paiementDAO.reglerPaiements(paiementIds);
     }
 
     /**
@@ -2,6 +2,7 @@ package main.java.com.controller;
 
 import main.java.com.dao.ArticleDAO;
 import main.java.com.dao.DAOFactory;
+import main.java.com.dao.RemiseDAO;
 import main.java.com.model.Article;
 import main.java.com.model.ArticleMarque;
 import main.java.com.model.LigneCommande;
@@ -9,15 +10,26 @@ import main.java.com.model.Remise;
 import main.java.com.util.ArticleMarqueUtil;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Contrôleur pour gérer les opérations liées au panier d'achat
+ * Les lignes sont indexées par article-marque, et le montant et la quantité totale sont tenus à jour
+ * à chaque modification : ajouter une ligne ou lire les totaux ne parcourt pas le panier
  */
 public class PanierController {
     private List<LigneCommande> lignesPanier;
+    private List<LigneCommande> lignesPanierLecture;
+    private Map<Integer, LigneCommande> lignesParArticleMarque;
+    private double montantTotal;
+    private int quantiteTotale;
     private ArticleDAO articleDAO;
+    private RemiseDAO remiseDAO;
     private CommandeController commandeController;
     private double remiseTotal;
     private String codeRemise;
@@ -30,7 +42,10 @@ public class PanierController {
      */
     public PanierController() {
         this.lignesPanier = new ArrayList<>();
+        this.lignesPanierLecture = Collections.unmodifiableList(lignesPanier);
+        this.lignesParArticleMarque = new HashMap<>();
         this.articleDAO = DAOFactory.getArticleDAO();
+        this.remiseDAO = DAOFactory.getRemiseDAO();
         this.commandeController = new CommandeController();
         this.remiseTotal = 0;
     }
@@ -49,20 +64,15 @@ public class PanierController {
         }
 
         // Vérifie si l'article est déjà dans le panier
-        for (LigneCommande ligne : lignesPanier) {
-            if (ligne.getArticleMarqueId() == articleMarque.getId()) {
-                // Augmente la quantité
-                int nouvelleQuantite = ligne.getQuantite() + quantite;
-                if (article.getStock() < nouvelleQuantite) {
-                    return false; // Stock insuffisant
-                }
-                ligne.setQuantite(nouvelleQuantite);
-                // Recalcule le prix total
-                double prix = getPrixUnitaire(articleMarque, nouvelleQuantite);
-                ligne.setPrixUnitaire(prix);
-                ligne.calculerPrixTotal();
-                return true;
+        LigneCommande existante = lignesParArticleMarque.get(articleMarque.getId());
+        if (existante != null) {
+            // Augmente la quantité
+            int nouvelleQuantite = existante.getQuantite() + quantite;
+            if (article.getStock() < nouvelleQuantite) {
+                return false; // Stock insuffisant
             }
+            changerQuantite(existante, articleMarque, nouvelleQuantite);
+            return true;
         }
 
         // Article non présent dans le panier, on l'ajoute
@@ -74,6 +84,9 @@ public class PanierController {
         ligne.setPrixUnitaire(prix);
         ligne.calculerPrixTotal();
         lignesPanier.add(ligne);
+        lignesParArticleMarque.put(ligne.getArticleMarqueId(), ligne);
+        montantTotal += ligne.getPrixTotal();
+        quantiteTotale += quantite;
 
         return true;
     }
@@ -133,15 +146,26 @@ public class PanierController {
             return false;
         }
 
-        // Met à jour la quantité
-        ligne.setQuantite(quantite);
+        // Met à jour la quantité, le prix unitaire et le prix total
+        changerQuantite(ligne, articleMarque, quantite);
+
+        return true;
+    }
+
+    /**
+     * Change la quantité d'une ligne, recalcule ses prix et reporte l'écart sur les totaux du panier
+     */
+    private void changerQuantite(LigneCommande ligne, ArticleMarque articleMarque, int quantite) {
+        double ancienPrixTotal = ligne.getPrixTotal();
+        int ancienneQuantite = ligne.getQuantite();
 
-        // Recalcule le prix unitaire et le prix total
+        ligne.setQuantite(quantite);
         double prix = getPrixUnitaire(articleMarque, quantite);
         ligne.setPrixUnitaire(prix);
         ligne.calculerPrixTotal();
 
-        return true;
+        montantTotal += ligne.getPrixTotal() - ancienPrixTotal;
+        quantiteTotale += quantite - ancienneQuantite;
     }
 
     /**
@@ -154,7 +178,16 @@ public class PanierController {
             return false;
         }
 
-        lignesPanier.remove(index);
+        LigneCommande ligne = lignesPanier.remove(index);
+        lignesParArticleMarque.remove(ligne.getArticleMarqueId());
+        if (lignesPanier.isEmpty()) {
+            // Repart de zéro plutôt que de garder les erreurs d'arrondi des soustractions
+            montantTotal = 0;
+            quantiteTotale = 0;
+        } else {
+            montantTotal -= ligne.getPrixTotal();
+            quantiteTotale -= ligne.getQuantite();
+        }
         return true;
     }
 
@@ -162,7 +195,7 @@ public class PanierController {
      * Vide le panier
      */
     public void viderPanier() {
-        lignesPanier.clear();
+        effacerLignes();
         remiseTotal = 0;
         codeRemise = null;
         // Ne pas réinitialiser lastOrderNetAmount ici
@@ -179,25 +212,26 @@ public class PanierController {
         }
 
         // Vérifie la quantité minimale
-        int quantiteTotale = 0;
-        for (LigneCommande ligne : lignesPanier) {
-            quantiteTotale += ligne.getQuantite();
-        }
-
         if (quantiteTotale < remise.getQuantiteMin()) {
             return false;
         }
 
-        // Calcule le montant total avant remise
-        double montantTotal = getMontantTotal();
-
-        // Applique la remise
+        // Applique la remise sur le montant total avant remise
         remiseTotal = remise.calculerRemise(montantTotal);
         codeRemise = remise.getCode();
 
         return true;
     }
 
+    /**
+     * Recherche une remise par le code saisi par le client
+     * @param code Le code de remise
+     * @return La remise, ou null si le code n'existe pas
+     */
+    public Remise trouverRemise(String code) {
+        return remiseDAO.findByCode(code);
+    }
+
     /**
      * Annule la remise appliquée
      */
@@ -207,18 +241,41 @@ public class PanierController {
     }
 
     /**
-     * Valide le panier et crée une commande
+     * Fige le contenu du panier pour sa validation (à appeler sur le thread Swing)
+     * La validation travaille sur des copies des lignes : le panier peut être modifié pendant
+     * qu'elle s'exécute en arrière-plan
+     * @return Le panier figé, ou null si le panier est vide
+     */
+    public PanierFige figerPanier() {
+        if (lignesPanier.isEmpty()) {
+            return null;
+        }
+
+        List<LigneCommande> copies = new ArrayList<>(lignesPanier.size());
+        for (LigneCommande ligne : lignesPanier) {
+            LigneCommande copie = new LigneCommande(0, 0, ligne.getArticleMarqueId(), ligne.getQuantite(),
+                    ligne.getPrixUnitaire(), ligne.getPrixTotal());
+            copie.setArticleMarque(ligne.getArticleMarque());
+            copies.add(copie);
+        }
+        return new PanierFige(new ArrayList<>(lignesPanier), copies, remiseTotal, getMontantNet());
+    }
+
+    /**
+     * Valide un panier figé et crée la commande (peut s'exécuter hors du thread Swing :
+     * seules les copies du panier figé sont lues et modifiées)
      * @param clientId L'ID du client
      * @param note Une note éventuelle pour la commande
+     * @param panier Le panier figé par figerPanier
      * @return L'ID de la commande créée, -1 si échec
      */
-    public int validerPanier(int clientId, String note) {
-        if (lignesPanier.isEmpty()) {
+    public int validerPanier(int clientId, String note, PanierFige panier) {
+        if (panier == null) {
             return -1;
         }
 
         // Assurez-vous que chaque ArticleMarque existe dans la base de données
-        for (LigneCommande ligne : lignesPanier) {
+        for (LigneCommande ligne : panier.copies) {
             ArticleMarque articleMarque = ligne.getArticleMarque();
             if (articleMarque != null) {
                 // Utilise notre utilitaire pour garantir que la relation existe
@@ -228,30 +285,55 @@ public class PanierController {
         }
 
         // Vérifie la disponibilité des articles
-        if (!commandeController.checkArticlesAvailability(lignesPanier)) {
+        if (!commandeController.checkArticlesAvailability(panier.copies)) {
             return -1;
         }
 
-        // Décrémente le stock
-        if (!commandeController.decrementStock(lignesPanier)) {
-            return -1;
-        }
+        // Crée la commande (le stock est décrémenté dans la même transaction)
+        return commandeController.createCommande(clientId, panier.copies, panier.montantRemise, note);
+    }
 
-        // Mémoriser le montant net avant de vider le panier
-        lastOrderNetAmount = getMontantNet();
+    /**
+     * Retire du panier ce qui a été commandé, après la création de la commande (sur le thread Swing)
+     * Les lignes ajoutées pendant la validation restent dans le panier, et une ligne dont la quantité
+     * a augmenté entre-temps n'en garde que le surplus
+     * @param panier Le panier figé qui a été validé
+     */
+    public void terminerValidation(PanierFige panier) {
+        // Mémoriser le montant net de la commande
+        // On ne vide pas la remise ici pour permettre à la page de paiement d'y accéder
+        lastOrderNetAmount = panier.montantNet;
+
+        Map<LigneCommande, LigneCommande> commandees = new IdentityHashMap<>();
+        for (int i = 0; i < panier.originales.size(); i++) {
+            commandees.put(panier.originales.get(i), panier.copies.get(i));
+        }
 
-        // Crée la commande
-        int commandeId = commandeController.createCommande(clientId, lignesPanier, remiseTotal, note);
+        lignesPanier.removeIf(ligne -> {
+            LigneCommande commandee = commandees.get(ligne);
+            if (commandee == null) {
+                return false;
+            }
+            int reste = ligne.getQuantite() - commandee.getQuantite();
+            if (reste <= 0) {
+                return true;
+            }
+            ligne.setArticleMarqueId(commandee.getArticleMarqueId());
+            changerQuantite(ligne, ligne.getArticleMarque(), reste);
+            return false;
+        });
 
-        // Si la commande a été créée avec succès, vide le panier
-        if (commandeId > 0) {
-            // On ne vide pas les variables mémorisées ici pour permettre
-            // à la page de paiement d'y accéder après création de la commande
-            lignesPanier.clear();
+        // Identifiants d'article-marque et totaux recalculés sur ce qui reste
+        lignesParArticleMarque.clear();
+        montantTotal = 0;
+        quantiteTotale = 0;
+        for (LigneCommande ligne : lignesPanier) {
+            lignesParArticleMarque.put(ligne.getArticleMarqueId(), ligne);
+            montantTotal += ligne.getPrixTotal();
+            quantiteTotale += ligne.getQuantite();
         }
-
-        return commandeId;
     }
+
     /**
      * Récupère le montant net de la dernière commande validée
      * @return Le montant net de la dernière commande
@@ -265,11 +347,15 @@ public class PanierController {
      * @return Le montant total
      */
     public double getMontantTotal() {
-        double total = 0;
-        for (LigneCommande ligne : lignesPanier) {
-            total += ligne.getPrixTotal();
-        }
-        return total;
+        return montantTotal;
+    }
+
+    /**
+     * Récupère la quantité totale d'articles dans le panier
+     * @return La somme des quantités des lignes
+     */
+    public int getQuantiteTotale() {
+        return quantiteTotale;
     }
 
     /**
@@ -298,10 +384,37 @@ public class PanierController {
 
     /**
      * Récupère les lignes du panier
-     * @return La liste des lignes du panier
+     * Les lignes se modifient par ce contrôleur (ajouterArticle, modifierQuantite...), qui tient les totaux à jour
+     * @return La liste des lignes du panier, en lecture seule
      */
     public List<LigneCommande> getLignesPanier() {
-        return lignesPanier;
+        return lignesPanierLecture;
+    }
+
+    private void effacerLignes() {
+        lignesPanier.clear();
+        lignesParArticleMarque.clear();
+        montantTotal = 0;
+        quantiteTotale = 0;
+    }
+
+    /**
+     * Contenu du panier au moment de sa validation
+     */
+    public static final class PanierFige {
+        // Lignes du panier au moment de la validation, et leurs copies envoyées à la commande (même ordre)
+        private final List<LigneCommande> originales;
+        private final List<LigneCommande> copies;
+        private final double montantRemise;
+        private final double montantNet;
+
+        private PanierFige(List<LigneCommande> originales, List<LigneCommande> copies,
+                           double montantRemise, double montantNet) {
+            this.originales = originales;
+            this.copies = copies;
+            this.montantRemise = montantRemise;
+            this.montantNet = montantNet;
+        }
     }
 }
 //
@@ -0,0 +1,41 @@
+package main.java.com.controller;
+
+/**
+ * Fonctionnalités de l'espace administrateur soumises à permission
+ * Les permissions d'un rôle sont représentées par un EnumSet (un simple masque de bits)
+ */
+public enum Permission {
+    GESTION_ADMIN("gestion_admin"),
+    GESTION_ARTICLES("gestion_articles"),
+    GESTION_CLIENTS("gestion_clients"),
+    GESTION_REMISES("gestion_remises"),
+    STATS("stats"),
+    REPORTING("reporting");
+
+    private final String code;
+
+    Permission(String code) {
+        this.code = code;
+    }
+
+    /**
+     * @return Le code de la permission, tel qu'utilisé historiquement par les contrôleurs
+     */
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * Retrouve une permission à partir de son code
+     * @param code Le code ("gestion_articles", "stats"...)
+     * @return La permission, ou null si le code est inconnu
+     */
+    public static Permission fromCode(String code) {
+        for (Permission permission : values()) {
+            if (permission.code.equals(code)) {
+                return permission;
+            }
+        }
+        return null;
+    }
+}
@@ -5,24 +5,26 @@ import main.java.com.model.Article;
 
 import java.sql.*;
 import java.util.ArrayList;
-import java.util.List;  
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;  
    
 /**    
  * Classe DAO pour l'entité Article   
  */  
 public class ArticleDAO implements GenericDAO<Article>  {
-    private Connection connection;   
-
-    public ArticleDAO() {
-        this.connection = DatabaseConnection.getInstance().getConnection();
-    }
+    // Nombre maximal d'identifiants par clause IN (une puissance de deux, voir requeteArticlesParIds)
+    private static final int TAILLE_LOT_IN = 256;
 
     @Override
     public Article findById(int id) {
         Article article = null;
         String query = "SELECT * FROM article WHERE id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setInt(1, id);
 
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -42,7 +44,8 @@ public class ArticleDAO implements GenericDAO<Article>  {
         List<Article> articles = new ArrayList<>();
         String query = "SELECT * FROM article";
 
-        try (Statement stmt = connection.createStatement();
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(query)) {
 
             while (rs.next()) {
@@ -61,7 +64,8 @@ public class ArticleDAO implements GenericDAO<Article>  {
         String query = "INSERT INTO article (nom, description, prix_unitaire, prix_gros, quantite_gros, stock, image_url) " +
                 "VALUES (?, ?, ?, ?, ?, ?, ?)";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setString(1, article.getNom());
             pstmt.setString(2, article.getDescription());
             pstmt.setDouble(3, article.getPrixUnitaire());
@@ -89,6 +93,7 @@ public class ArticleDAO implements GenericDAO<Article>  {
                         article.setId(generatedKeys.getInt(1));
                     }
                 }
+                ArticleSearchIndex.getInstance().put(article);
                 return true;
             }
         } catch (SQLException e) {
@@ -103,7 +108,8 @@ public class ArticleDAO implements GenericDAO<Article>  {
         String query = "UPDATE article SET nom = ?, description = ?, prix_unitaire = ?, " +
                 "prix_gros = ?, quantite_gros = ?, stock = ?, image_url = ? WHERE id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setString(1, article.getNom());
             pstmt.setString(2, article.getDescription());
             pstmt.setDouble(3, article.getPrixUnitaire());
@@ -124,7 +130,10 @@ public class ArticleDAO implements GenericDAO<Article>  {
             pstmt.setString(7, article.getImageUrl());
             pstmt.setInt(8, article.getId());
 
-            return pstmt.executeUpdate() > 0;
+            if (pstmt.executeUpdate() > 0) {
+                ArticleSearchIndex.getInstance().put(article);
+                return true;
+            }
         } catch (SQLException e) {
             System.err.println("Erreur lors de la mise à jour de l'article : " + e.getMessage());
         }
@@ -136,10 +145,14 @@ public class ArticleDAO implements GenericDAO<Article>  {
     public boolean delete(int id) {
         String query = "DELETE FROM article WHERE id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setInt(1, id);
 
-            return pstmt.executeUpdate() > 0;
+            if (pstmt.executeUpdate() > 0) {
+                ArticleSearchIndex.getInstance().remove(id);
+                return true;
+            }
         } catch (SQLException e) {
             System.err.println("Erreur lors de la suppression de l'article : " + e.getMessage());
         }
@@ -153,7 +166,8 @@ public class ArticleDAO implements GenericDAO<Article>  {
                 "JOIN article_marque am ON a.id = am.article_id " +
                 "WHERE am.marque_id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setInt(1, marqueId);
 
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -169,11 +183,152 @@ public class ArticleDAO implements GenericDAO<Article>  {
         return articles;
     }
 
+    /**
+     * Récupère une page d'articles, par pagination sur clé (sans OFFSET)
+     * Le coût d'une page ne dépend pas de sa position dans le catalogue
+     * La clé de tri est prise sur le curseur lui-même : la page suivante reste lisible
+     * même si cet article a été supprimé entre-temps
+     * @param apres Dernier article de la page précédente (null pour la première page)
+     * @param limit Nombre maximal d'articles retournés
+     * @param sort Ordre de tri
+     * @return Liste des articles de la page
+     */
+    public List<Article> findPage(Article apres, int limit, ArticleSort sort) {
+        List<Article> articles = new ArrayList<>();
+        String query;
+        if (apres == null) {
+            query = "SELECT a.* FROM article a ORDER BY " + sort.orderBy() + " LIMIT ?";
+        } else {
+            query = "SELECT a.* FROM article a WHERE " + sort.afterCondition() +
+                    " ORDER BY " + sort.orderBy() + " LIMIT ?";
+        }
+
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            int index = 1;
+            if (apres != null) {
+                if (sort.hasCle()) {
+                    pstmt.setObject(index++, sort.cle(apres));
+                }
+                pstmt.setInt(index++, apres.getId());
+            }
+            pstmt.setInt(index, limit);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    articles.add(extractArticleFromResultSet(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la récupération d'une page d'articles : " + e.getMessage());
+        }
+
+        return articles;
+    }
+
+    /**
+     * Recherche des articles par nom ou description, via l'index en mémoire
+     * Les résultats sont classés par pertinence puis relus en base par identifiant (voir findByIds)
+     * @param terme Le texte recherché (un ou plusieurs mots, éventuellement partiels)
+     * @param limit Nombre maximal de résultats
+     * @return Liste des articles trouvés, du plus pertinent au moins pertinent
+     */
+    public List<Article> search(String terme, int limit) {
+        return findByIds(ArticleSearchIndex.getInstance().search(terme, limit, this));
+    }
+
+    /**
+     * Récupère plusieurs articles, en une requête par lot de TAILLE_LOT_IN identifiants
+     * @param ids Les identifiants des articles
+     * @return Les articles trouvés, dans l'ordre des identifiants demandés ; aucun en cas d'erreur
+     */
+    public List<Article> findByIds(List<Integer> ids) {
+        List<Article> articles = new ArrayList<>();
+        if (ids.isEmpty()) {
+            return articles;
+        }
+
+        List<Integer> distincts = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Integer, Article> parId = new HashMap<>();
+        try (Connection connection = DatabaseConnection.getInstance().getConnection()) {
+            for (int debut = 0; debut < distincts.size(); debut += TAILLE_LOT_IN) {
+                List<Integer> lot = distincts.subList(debut, Math.min(debut + TAILLE_LOT_IN, distincts.size()));
+                int parametres = Integer.highestOneBit(lot.size() * 2 - 1);
+
+                try (PreparedStatement pstmt = connection.prepareStatement(requeteArticlesParIds(parametres))) {
+                    // Le dernier lot est complété en répétant son dernier identifiant
+                    for (int i = 0; i < parametres; i++) {
+                        pstmt.setInt(i + 1, lot.get(Math.min(i, lot.size() - 1)));
+                    }
+
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            Article article = extractArticleFromResultSet(rs);
+                            parId.put(article.getId(), article);
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la récupération des articles par ID : " + e.getMessage());
+            return articles;
+        }
+
+        for (Integer id : ids) {
+            Article article = parId.get(id);
+            if (article != null) {
+                articles.add(article);
+            }
+        }
+
+        return articles;
+    }
+
+    /**
+     * Requête des articles pour un nombre donné d'identifiants
+     * Le nombre de paramètres est arrondi à une puissance de deux par l'appelant : seuls quelques
+     * textes SQL différents existent, et chacun reste dans le cache de requêtes préparées
+     */
+    private static String requeteArticlesParIds(int parametres) {
+        StringBuilder query = new StringBuilder("SELECT * FROM article WHERE id IN (");
+        for (int i = 0; i < parametres; i++) {
+            query.append(i == 0 ? "?" : ", ?");
+        }
+        return query.append(")").toString();
+    }
+
+    /**
+     * Lit le nom et la description de tous les articles, pour construire l'index de recherche
+     * @return Les articles, réduits aux champs indexés
+     * @throws SQLException Si la lecture échoue (l'index ne doit pas être construit à partir d'une liste partielle)
+     */
+    List<Article> findAllForIndex() throws SQLException {
+        List<Article> articles = new ArrayList<>();
+        String query = "SELECT id, nom, description FROM article";
+
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.setFetchSize(1000);
+            try (ResultSet rs = stmt.executeQuery(query)) {
+                while (rs.next()) {
+                    Article article = new Article();
+                    article.setId(rs.getInt("id"));
+                    article.setNom(rs.getString("nom"));
+                    article.setDescription(rs.getString("description"));
+                    articles.add(article);
+                }
+            }
+        }
+
+        return articles;
+    }
+
     public List<Article> findByNom(String nom) {
         List<Article> articles = new ArrayList<>();
         String query = "SELECT * FROM article WHERE nom LIKE ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setString(1, "%" + nom + "%");
 
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -189,6 +344,95 @@ public class ArticleDAO implements GenericDAO<Article>  {
         return articles;
     }
 
+    /**
+     * Décrémente le stock d'un article si la quantité demandée est disponible
+     * @param articleId L'identifiant de l'article
+     * @param quantite La quantité à retirer
+     * @return true si le stock a été décrémenté, false s'il était insuffisant
+     */
+    public boolean decrementStock(int articleId, int quantite) {
+        String query = "UPDATE article SET stock = stock - ? WHERE id = ? AND stock >= ?";
+
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setInt(1, quantite);
+            pstmt.setInt(2, articleId);
+            pstmt.setInt(3, quantite);
+
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la mise à jour du stock de l'article : " + e.getMessage());
+        } finally {
+            DAOFactory.getCachedArticleDAO().invalidate(articleId);
+        }
+
+        return false;
+    }
+
+    /**
+     * Décrémente le stock de plusieurs articles sur une connexion donnée (pour participer à une transaction)
+     * Chaque mise à jour est conditionnée au stock disponible, ce qui empêche toute survente
+     * même si plusieurs commandes sont validées en parallèle
+     * @param connection La connexion de la transaction en cours
+     * @param quantitesParArticle Quantité à retirer, par identifiant d'article
+     * @return true si le stock de chaque article était suffisant, false sinon
+     * @throws SQLException Si une erreur SQL se produit
+     */
+    boolean reserverStock(Connection connection, Map<Integer, Integer> quantitesParArticle) throws SQLException {
+        if (quantitesParArticle.isEmpty()) {
+            return true;
+        }
+
+        String query = "UPDATE article SET stock = stock - ? WHERE id = ? AND stock >= ?";
+
+        // Les articles sont verrouillés par identifiant croissant pour éviter les interblocages
+        Map<Integer, Integer> ordonnees = new TreeMap<>(quantitesParArticle);
+
+        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+            for (Map.Entry<Integer, Integer> entry : ordonnees.entrySet()) {
+                pstmt.setInt(1, entry.getValue());
+                pstmt.setInt(2, entry.getKey());
+                pstmt.setInt(3, entry.getValue());
+                pstmt.addBatch();
+            }
+
+            for (int count : pstmt.executeBatch()) {
+                if (count != 1) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Remet en stock les quantités de plusieurs articles sur une connexion donnée (pour participer à une transaction)
+     * Une seule requête en lot ; l'incrément est calculé par la base, sans relire le stock
+     * @param connection La connexion de la transaction en cours
+     * @param quantitesParArticle Quantité à remettre en stock, par identifiant d'article
+     * @throws SQLException Si une erreur SQL se produit
+     */
+    void restituerStock(Connection connection, Map<Integer, Integer> quantitesParArticle) throws SQLException {
+        if (quantitesParArticle.isEmpty()) {
+            return;
+        }
+
+        String query = "UPDATE article SET stock = stock + ? WHERE id = ?";
+
+        // Même ordre de verrouillage que reserverStock
+        Map<Integer, Integer> ordonnees = new TreeMap<>(quantitesParArticle);
+
+        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+            for (Map.Entry<Integer, Integer> entry : ordonnees.entrySet()) {
+                pstmt.setInt(1, entry.getValue());
+                pstmt.setInt(2, entry.getKey());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
     private Article extractArticleFromResultSet(ResultSet rs) throws SQLException {
         Article article = new Article();
         article.setId(rs.getInt("id"));
@@ -0,0 +1,326 @@
+package main.java.com.dao;
+
+import main.java.com.model.Article;
+
+import java.sql.SQLException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Index inversé en mémoire sur le nom et la description des articles
+ * Chaque mot est indexé entier et par trigrammes, ce qui permet de retrouver un fragment
+ * de mot (comme un LIKE '%terme%') sans parcourir la table
+ * L'index est construit au premier usage puis tenu à jour par ArticleDAO
+ */
+public class ArticleSearchIndex {
+    private static final ArticleSearchIndex INSTANCE = new ArticleSearchIndex();
+
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATEURS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int TAILLE_NGRAMME = 3;
+
+    // Poids d'un terme selon l'endroit et la façon dont il est trouvé
+    private static final int SCORE_NOM_EXACT = 10;
+    private static final int SCORE_NOM_PREFIXE = 6;
+    private static final int SCORE_NOM_FRAGMENT = 3;
+    private static final int SCORE_DESCRIPTION_EXACT = 3;
+    private static final int SCORE_DESCRIPTION_PREFIXE = 2;
+    private static final int SCORE_DESCRIPTION_FRAGMENT = 1;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Document> documents = new HashMap<>();
+    private final Map<String, Set<Integer>> parMot = new HashMap<>();
+    private final Map<String, Set<Integer>> parTrigramme = new HashMap<>();
+    private volatile boolean construit;
+
+    private ArticleSearchIndex() {
+    }
+
+    /**
+     * Retourne l'index partagé par toute l'application
+     * @return L'index de recherche des articles
+     */
+    public static ArticleSearchIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Recherche les articles dont le nom ou la description contient tous les mots du terme
+     * @param terme Le texte recherché
+     * @param limit Nombre maximal de résultats
+     * @param chargeur Source des articles, utilisée si l'index n'est pas encore construit
+     * @return Les identifiants des articles trouvés, du plus pertinent au moins pertinent
+     */
+    public List<Integer> search(String terme, int limit, ArticleDAO chargeur) {
+        List<String> mots = tokenize(terme);
+        if (mots.isEmpty() || limit <= 0 || !ensureBuilt(chargeur)) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            // Candidats : articles contenant chaque mot recherché (intersection)
+            Set<Integer> candidats = null;
+            for (String mot : mots) {
+                Set<Integer> trouves = candidatsPour(mot);
+                if (candidats == null) {
+                    candidats = trouves;
+                } else {
+                    candidats.retainAll(trouves);
+                }
+                if (candidats.isEmpty()) {
+                    return new ArrayList<>();
+                }
+            }
+
+            List<int[]> scores = new ArrayList<>(candidats.size());
+            for (Integer id : candidats) {
+                Document document = documents.get(id);
+                int score = 0;
+                for (String mot : mots) {
+                    int scoreMot = document.score(mot);
+                    if (scoreMot == 0) {
+                        // Faux positif des trigrammes : le fragment n'apparaît pas réellement
+                        score = 0;
+                        break;
+                    }
+                    score += scoreMot;
+                }
+                if (score > 0) {
+                    scores.add(new int[] {id, score});
+                }
+            }
+
+            scores.sort((a, b) -> a[1] != b[1] ? Integer.compare(b[1], a[1]) : Integer.compare(a[0], b[0]));
+
+            List<Integer> ids = new ArrayList<>(Math.min(limit, scores.size()));
+            for (int i = 0; i < scores.size() && i < limit; i++) {
+                ids.add(scores.get(i)[0]);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Articles pouvant contenir le mot : par trigrammes, ou par parcours du vocabulaire pour un mot court
+     */
+    private Set<Integer> candidatsPour(String mot) {
+        Set<Integer> resultat = new HashSet<>();
+        if (mot.length() < TAILLE_NGRAMME) {
+            for (Map.Entry<String, Set<Integer>> entry : parMot.entrySet()) {
+                if (entry.getKey().contains(mot)) {
+                    resultat.addAll(entry.getValue());
+                }
+            }
+            return resultat;
+        }
+
+        boolean premier = true;
+        for (String trigramme : trigrammes(mot)) {
+            Set<Integer> postings = parTrigramme.get(trigramme);
+            if (postings == null) {
+                return Collections.emptySet();
+            }
+            if (premier) {
+                resultat.addAll(postings);
+                premier = false;
+            } else {
+                resultat.retainAll(postings);
+            }
+        }
+        return resultat;
+    }
+
+    /**
+     * Ajoute ou remplace un article dans l'index (sans effet tant que l'index n'est pas construit)
+     * L'état de l'index est lu sous le verrou : pendant une construction, la mise à jour attend
+     * sa fin puis s'applique, au lieu d'être perdue si la lecture de la table l'a précédée
+     * @param article L'article créé ou modifié
+     */
+    void put(Article article) {
+        lock.writeLock().lock();
+        try {
+            if (!construit) {
+                return;
+            }
+            retirer(article.getId());
+            ajouter(article.getId(), article.getNom(), article.getDescription());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retire un article de l'index
+     * @param id L'identifiant de l'article supprimé
+     */
+    void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            if (construit) {
+                retirer(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Force la reconstruction complète au prochain usage
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            construit = false;
+            documents.clear();
+            parMot.clear();
+            parTrigramme.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Construit l'index s'il ne l'est pas encore
+     * @return false si la lecture des articles a échoué : l'index reste à construire au prochain usage
+     */
+    private boolean ensureBuilt(ArticleDAO chargeur) {
+        if (construit) {
+            return true;
+        }
+        lock.writeLock().lock();
+        try {
+            if (construit) {
+                return true;
+            }
+            List<Article> articles;
+            try {
+                articles = chargeur.findAllForIndex();
+            } catch (SQLException e) {
+                System.err.println("Erreur lors de la construction de l'index de recherche : " + e.getMessage());
+                return false;
+            }
+            for (Article article : articles) {
+                ajouter(article.getId(), article.getNom(), article.getDescription());
+            }
+            construit = true;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ajouter(int id, String nom, String description) {
+        Document document = new Document(tokenize(nom), tokenize(description));
+        documents.put(id, document);
+        for (String mot : document.mots()) {
+            parMot.computeIfAbsent(mot, k -> new HashSet<>()).add(id);
+            for (String trigramme : trigrammes(mot)) {
+                parTrigramme.computeIfAbsent(trigramme, k -> new HashSet<>()).add(id);
+            }
+        }
+    }
+
+    private void retirer(int id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String mot : document.mots()) {
+            retirerPosting(parMot, mot, id);
+            for (String trigramme : trigrammes(mot)) {
+                retirerPosting(parTrigramme, trigramme, id);
+            }
+        }
+    }
+
+    private static void retirerPosting(Map<String, Set<Integer>> index, String cle, int id) {
+        Set<Integer> postings = index.get(cle);
+        if (postings != null) {
+            postings.remove(id);
+            if (postings.isEmpty()) {
+                index.remove(cle);
+            }
+        }
+    }
+
+    /**
+     * Découpe un texte en mots normalisés (minuscules, sans accents)
+     */
+    static List<String> tokenize(String texte) {
+        List<String> mots = new ArrayList<>();
+        if (texte == null) {
+            return mots;
+        }
+        String normalise = ACCENTS.matcher(Normalizer.normalize(texte, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        for (String mot : SEPARATEURS.split(normalise)) {
+            if (!mot.isEmpty()) {
+                mots.add(mot);
+            }
+        }
+        return mots;
+    }
+
+    private static Set<String> trigrammes(String mot) {
+        Set<String> resultat = new HashSet<>();
+        for (int i = 0; i + TAILLE_NGRAMME <= mot.length(); i++) {
+            resultat.add(mot.substring(i, i + TAILLE_NGRAMME));
+        }
+        return resultat;
+    }
+
+    /**
+     * Mots indexés d'un article
+     */
+    private static final class Document {
+        private final List<String> nom;
+        private final List<String> description;
+
+        private Document(List<String> nom, List<String> description) {
+            this.nom = nom;
+            this.description = description;
+        }
+
+        private Set<String> mots() {
+            Set<String> mots = new LinkedHashSet<>(nom);
+            mots.addAll(description);
+            return mots;
+        }
+
+        /**
+         * Pertinence d'un mot recherché pour cet article (0 s'il n'apparaît pas)
+         */
+        private int score(String recherche) {
+            int score = meilleurScore(nom, recherche, SCORE_NOM_EXACT, SCORE_NOM_PREFIXE, SCORE_NOM_FRAGMENT);
+            return score + meilleurScore(description, recherche,
+                    SCORE_DESCRIPTION_EXACT, SCORE_DESCRIPTION_PREFIXE, SCORE_DESCRIPTION_FRAGMENT);
+        }
+
+        private static int meilleurScore(List<String> mots, String recherche, int exact, int prefixe, int fragment) {
+            int meilleur = 0;
+            for (String mot : mots) {
+                if (mot.equals(recherche)) {
+                    return exact;
+                } else if (mot.startsWith(recherche)) {
+                    meilleur = Math.max(meilleur, prefixe);
+                } else if (mot.contains(recherche)) {
+                    meilleur = Math.max(meilleur, fragment);
+                }
+            }
+            return meilleur;
+        }
+    }
+}
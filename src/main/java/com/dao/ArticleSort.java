@@ -0,0 +1,67 @@
+package main.java.com.dao;
+
+import main.java.com.model.Article;
+
+/**
+ * Ordres de tri disponibles pour la pagination du catalogue
+ * L'identifiant départage toujours les articles de même clé, ce qui rend l'ordre total et stable
+ * Chaque ordre est servi par un index (clé, id), parcouru dans un seul sens :
+ * voir resource/sql/article_pagination.sql
+ */
+public enum ArticleSort {
+    ID(null, false),
+    NOM("a.nom", false),
+    PRIX_CROISSANT("a.prix_unitaire", false),
+    PRIX_DECROISSANT("a.prix_unitaire", true);
+
+    private final String colonne;
+    private final boolean descendant;
+
+    ArticleSort(String colonne, boolean descendant) {
+        this.colonne = colonne;
+        this.descendant = descendant;
+    }
+
+    /**
+     * Clé et identifiant sont triés dans le même sens, pour que l'index soit lu sans tri
+     * @return La clause ORDER BY correspondante
+     */
+    String orderBy() {
+        String sens = descendant ? " DESC" : "";
+        return colonne == null ? "a.id" : colonne + sens + ", a.id" + sens;
+    }
+
+    /**
+     * Condition « après le curseur », sous forme de comparaison de lignes (utilisable par l'index)
+     * @return La condition SQL ; paramètres : la clé du curseur (sauf tri par identifiant), puis son id
+     */
+    String afterCondition() {
+        if (colonne == null) {
+            return "a.id > ?";
+        }
+        return "(" + colonne + ", a.id) " + (descendant ? "<" : ">") + " (?, ?)";
+    }
+
+    /**
+     * @return true si la condition du curseur porte aussi sur une clé de tri
+     */
+    boolean hasCle() {
+        return colonne != null;
+    }
+
+    /**
+     * @param article L'article servant de curseur
+     * @return La valeur de la clé de tri de l'article
+     */
+    Object cle(Article article) {
+        switch (this) {
+            case NOM:
+                return article.getNom();
+            case PRIX_CROISSANT:
+            case PRIX_DECROISSANT:
+                return article.getPrixUnitaire();
+            default:
+                return article.getId();
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package main.java.com.dao;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Cache en lecture devant un DAO : findById est servi depuis la mémoire tant que l'entrée
+ * n'a pas expiré, et update/delete invalident l'entrée concernée
+ * Le cache est borné en nombre d'entrées et évince la moins récemment utilisée
+ * @param <T> Le type d'objet géré par le DAO
+ */
+public class CachedDAO<T> implements GenericDAO<T> {
+    private final String name;
+    private final GenericDAO<T> delegate;
+    private final ToIntFunction<T> idOf;
+    private final UnaryOperator<T> copier;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LinkedHashMap<Integer, Entry<T>> entries;
+
+    // Incrémenté à chaque invalidation : un chargement commencé avant n'est pas mis en cache
+    private long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    /**
+     * Constructeur du cache
+     * @param name Nom du cache (pour les statistiques)
+     * @param delegate Le DAO interrogé en cas d'absence dans le cache
+     * @param idOf Fonction donnant l'identifiant d'un objet
+     * @param copier Fonction de copie : le cache ne remet jamais son propre exemplaire à l'appelant
+     * @param maxEntries Nombre maximal d'objets conservés
+     * @param ttlMillis Durée de vie d'une entrée en millisecondes
+     */
+    public CachedDAO(String name, GenericDAO<T> delegate, ToIntFunction<T> idOf, UnaryOperator<T> copier,
+                     int maxEntries, long ttlMillis) {
+        if (maxEntries <= 0 || ttlMillis <= 0) {
+            throw new IllegalArgumentException("Paramètres de cache invalides : max=" + maxEntries + ", ttl=" + ttlMillis);
+        }
+        this.name = name;
+        this.delegate = delegate;
+        this.idOf = idOf;
+        this.copier = copier;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<Integer, Entry<T>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry<T>> eldest) {
+                if (size() > CachedDAO.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public T findById(int id) {
+        long startGeneration;
+        synchronized (this) {
+            Entry<T> entry = entries.get(id);
+            if (entry != null) {
+                if (System.currentTimeMillis() < entry.expiresAt) {
+                    hits.incrementAndGet();
+                    return copier.apply(entry.value);
+                }
+                entries.remove(id);
+                expirations.incrementAndGet();
+            }
+            misses.incrementAndGet();
+            startGeneration = generation;
+        }
+
+        // Lecture hors verrou : une requête lente ne bloque pas les autres lectures
+        T value = delegate.findById(id);
+        if (value == null) {
+            return null;
+        }
+
+        synchronized (this) {
+            if (generation == startGeneration) {
+                entries.put(id, new Entry<>(copier.apply(value), System.currentTimeMillis() + ttlMillis));
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public List<T> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public boolean create(T t) {
+        return delegate.create(t);
+    }
+
+    @Override
+    public boolean update(T t) {
+        try {
+            return delegate.update(t);
+        } finally {
+            invalidate(idOf.applyAsInt(t));
+        }
+    }
+
+    @Override
+    public boolean delete(int id) {
+        try {
+            return delegate.delete(id);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    /**
+     * Retire un objet du cache (à appeler après une modification faite hors de ce DAO)
+     * @param id L'identifiant de l'objet
+     */
+    public synchronized void invalidate(int id) {
+        generation++;
+        entries.remove(id);
+    }
+
+    /**
+     * Retire plusieurs objets du cache
+     * @param ids Les identifiants des objets
+     */
+    public synchronized void invalidateAll(Collection<Integer> ids) {
+        generation++;
+        for (Integer id : ids) {
+            entries.remove(id);
+        }
+    }
+
+    /**
+     * Vide entièrement le cache
+     */
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    /**
+     * @return Le nombre d'objets actuellement en cache
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return Le nombre de lectures servies depuis le cache
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return Le nombre de lectures transmises à la base
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return Le nombre d'entrées évincées faute de place
+     */
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * @return Le nombre d'entrées retirées parce qu'elles avaient expiré
+     */
+    public long getExpirationCount() {
+        return expirations.get();
+    }
+
+    /**
+     * @return La proportion de lectures servies depuis le cache (0 si aucune lecture)
+     */
+    public double getHitRatio() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Résume l'efficacité du cache
+     * @return Les compteurs du cache
+     */
+    public String getStats() {
+        return String.format("Cache %s : %d entrées, %d succès, %d échecs, %d évictions, %d expirations (taux %.1f %%)",
+                name, size(), getHitCount(), getMissCount(), getEvictionCount(), getExpirationCount(),
+                getHitRatio() * 100);
+    }
+
+    /**
+     * Objet en cache et date d'expiration
+     */
+    private static final class Entry<T> {
+        private final T value;
+        private final long expiresAt;
+
+        private Entry(T value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
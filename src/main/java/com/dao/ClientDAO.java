@@ -13,19 +13,14 @@ import java.util.List;
  * Classe DAO pour l'entité Client
  */
 public class ClientDAO implements GenericDAO<Client> {
-    private Connection connection;
-
-    public ClientDAO() {
-        this.connection = DatabaseConnection.getInstance().getConnection();
-    }
-
     
     @Override
     public Client findById(int id) {
         Client client = null;
         String query = "SELECT * FROM client WHERE id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setInt(1, id);
 
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -45,7 +40,8 @@ public class ClientDAO implements GenericDAO<Client> {
         List<Client> clients = new ArrayList<>();
         String query = "SELECT * FROM client";
 
-        try (Statement stmt = connection.createStatement();
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(query)) {
 
             while (rs.next()) {
@@ -61,6 +57,23 @@ public class ClientDAO implements GenericDAO<Client> {
 
     @Override
     public boolean create(Client client) {
+        try (Connection connection = DatabaseConnection.getInstance().getConnection()) {
+            return create(connection, client);
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la création du client : " + e.getMessage());
+        }
+
+        return false;
+    }
+
+    /**
+     * Crée un client sur une connexion donnée (pour participer à une transaction)
+     * @param connection La connexion à utiliser
+     * @param client Le client à créer
+     * @return true si l'opération a réussi, false sinon
+     * @throws SQLException Si une erreur SQL se produit
+     */
+    private boolean create(Connection connection, Client client) throws SQLException {
         String query = "INSERT INTO client (utilisateur_id, statut) VALUES (?, ?)";
 
         try (PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
@@ -77,8 +90,6 @@ public class ClientDAO implements GenericDAO<Client> {
                 }
                 return true;
             }
-        } catch (SQLException e) {
-            System.err.println("Erreur lors de la création du client : " + e.getMessage());
         }
 
         return false;
@@ -88,7 +99,8 @@ public class ClientDAO implements GenericDAO<Client> {
     public boolean update(Client client) {
         String query = "UPDATE client SET utilisateur_id = ?, statut = ? WHERE id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setInt(1, client.getUtilisateurId());
             pstmt.setString(2, client.getStatut());
             pstmt.setInt(3, client.getId());
@@ -105,7 +117,8 @@ public class ClientDAO implements GenericDAO<Client> {
     public boolean delete(int id) {
         String query = "DELETE FROM client WHERE id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setInt(1, id);
 
             return pstmt.executeUpdate() > 0;
@@ -125,7 +138,8 @@ public class ClientDAO implements GenericDAO<Client> {
         Client client = null;
         String query = "SELECT * FROM client WHERE utilisateur_id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setInt(1, utilisateurId);
 
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -140,6 +154,50 @@ public class ClientDAO implements GenericDAO<Client> {
         return client;
     }
 
+    /**
+     * Récupère une page de clients avec leur utilisateur associé, en une seule requête
+     * La pagination se fait par clé (id > afterId) pour rester rapide quelle que soit la page
+     * @param afterId Identifiant du dernier client de la page précédente (0 pour la première page)
+     * @param limit Nombre maximal de clients retournés
+     * @param recherche Texte recherché dans le nom, le prénom ou l'email (null ou vide pour tous)
+     * @return Liste des clients, triés par identifiant, avec leur utilisateur renseigné
+     */
+    public List<Client> findPageWithUtilisateur(int afterId, int limit, String recherche) {
+        List<Client> clients = new ArrayList<>();
+        boolean filtre = recherche != null && !recherche.trim().isEmpty();
+        String query = "SELECT c.id, c.utilisateur_id, c.statut, u.email, u.type, u.nom, u.prenom, " +
+                "u.adresse, u.telephone, u.date_inscription FROM client c " +
+                "JOIN utilisateur u ON u.id = c.utilisateur_id " +
+                "WHERE c.id > ? " +
+                (filtre ? "AND (u.nom LIKE ? OR u.prenom LIKE ? OR u.email LIKE ?) " : "") +
+                "ORDER BY c.id LIMIT ?";
+
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            int index = 1;
+            pstmt.setInt(index++, afterId);
+            if (filtre) {
+                String motif = "%" + recherche.trim() + "%";
+                pstmt.setString(index++, motif);
+                pstmt.setString(index++, motif);
+                pstmt.setString(index++, motif);
+            }
+            pstmt.setInt(index, limit);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Client client = extractClientFromResultSet(rs);
+                    client.setUtilisateur(extractUtilisateurFromJoin(rs));
+                    clients.add(client);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la récupération d'une page de clients : " + e.getMessage());
+        }
+
+        return clients;
+    }
+
     /**
      * Crée un nouvel utilisateur et un client associé
      * @param utilisateur L'utilisateur à créer
@@ -149,39 +207,43 @@ public class ClientDAO implements GenericDAO<Client> {
     public boolean createWithUtilisateur(Utilisateur utilisateur, Client client) {
         UtilisateurDAO utilisateurDAO = DAOFactory.getUtilisateurDAO();
 
-        // Début de la transaction
-        try {
+        try (Connection connection = DatabaseConnection.getInstance().getConnection()) {
+            // Début de la transaction
             connection.setAutoCommit(false);
+            try {
+                // Création de l'utilisateur
+                if (utilisateurDAO.create(connection, utilisateur)) {
+                    // Associe l'ID de l'utilisateur créé au client
+                    client.setUtilisateurId(utilisateur.getId());
+
+                    // Création du client
+                    if (create(connection, client)) {
+                        connection.commit();
+                        return true;
+                    }
+                }
 
-            // Création de l'utilisateur
-            if (utilisateurDAO.create(utilisateur)) {
-                // Associe l'ID de l'utilisateur créé au client
-                client.setUtilisateurId(utilisateur.getId());
-
-                // Création du client
-                if (create(client)) {
-                    connection.commit();
-                    return true;
+                // Si on arrive ici, c'est qu'il y a eu un problème
+                connection.rollback();
+                return false;
+            } catch (SQLException e) {
+                System.err.println("Erreur lors de la création du client avec utilisateur : " + e.getMessage());
+                try {
+                    connection.rollback();
+                } catch (SQLException ex) {
+                    System.err.println("Erreur lors du rollback : " + ex.getMessage());
+                }
+                return false;
+            } finally {
+                try {
+                    connection.setAutoCommit(true);
+                } catch (SQLException e) {
+                    System.err.println("Erreur lors du rétablissement de l'autocommit : " + e.getMessage());
                 }
             }
-
-            // Si on arrive ici, c'est qu'il y a eu un problème
-            connection.rollback();
-            return false;
         } catch (SQLException e) {
             System.err.println("Erreur lors de la création du client avec utilisateur : " + e.getMessage());
-            try {
-                connection.rollback();
-            } catch (SQLException ex) {
-                System.err.println("Erreur lors du rollback : " + ex.getMessage());
-            }
             return false;
-        } finally {
-            try {
-                connection.setAutoCommit(true);
-            } catch (SQLException e) {
-                System.err.println("Erreur lors du rétablissement de l'autocommit : " + e.getMessage());
-            }
         }
     }
 
@@ -198,4 +260,24 @@ public class ClientDAO implements GenericDAO<Client> {
         client.setStatut(rs.getString("statut"));
         return client;
     }
+
+    /**
+     * Extrait l'utilisateur d'une ligne de jointure client/utilisateur
+     * Le mot de passe n'est pas sélectionné par la jointure et reste donc vide
+     * @param rs ResultSet contenant les données
+     * @return L'utilisateur associé au client
+     * @throws SQLException Si une erreur SQL se produit
+     */
+    private Utilisateur extractUtilisateurFromJoin(ResultSet rs) throws SQLException {
+        Utilisateur utilisateur = new Utilisateur();
+        utilisateur.setId(rs.getInt("utilisateur_id"));
+        utilisateur.setEmail(rs.getString("email"));
+        utilisateur.setType(rs.getString("type"));
+        utilisateur.setNom(rs.getString("nom"));
+        utilisateur.setPrenom(rs.getString("prenom"));
+        utilisateur.setAdresse(rs.getString("adresse"));
+        utilisateur.setTelephone(rs.getString("telephone"));
+        utilisateur.setDateInscription(rs.getDate("date_inscription"));
+        return utilisateur;
+    }
 }
@@ -1,32 +1,49 @@
 package main.java.com.dao;
 
 import main.java.com.config.DatabaseConnection;
+import main.java.com.model.Article;
 import main.java.com.model.ArticleMarque;
 import main.java.com.model.Commande;
 import main.java.com.model.LigneCommande;
+import main.java.com.model.Marque;
+import main.java.com.util.CsvWriter;
 
 
+import java.io.IOException;
 import java.sql.*;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
 
 
 /**
  * Classe DAO pour l'entité Commande
  */
 public class CommandeDAO implements GenericDAO<Commande> {
-    private Connection connection;
+    // Nombre de lignes lues par aller-retour lors de l'export détaillé
+    private static final int TAILLE_LOT_EXPORT = 5000;
+    // Nombre maximal d'identifiants par clause IN (une puissance de deux, voir requeteLignesCommandes)
+    private static final int TAILLE_LOT_IN = 256;
 
-    public CommandeDAO() {
-        this.connection = DatabaseConnection.getInstance().getConnection();
-    }
+    private final ArticleDAO articleDAO = DAOFactory.getArticleDAO();
+    private final MarqueDAO marqueDAO = DAOFactory.getMarqueDAO();
+    private final StatistiquesDAO statistiquesDAO = DAOFactory.getStatistiquesDAO();
 
     @Override
     public Commande findById(int id) {
         Commande commande = null;
         String query = "SELECT * FROM commande WHERE id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setInt(1, id);
 
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -46,7 +63,8 @@ public class CommandeDAO implements GenericDAO<Commande> {
         List<Commande> commandes = new ArrayList<>();
         String query = "SELECT * FROM commande ORDER BY date_commande DESC";
 
-        try (Statement stmt = connection.createStatement();
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(query)) {
 
             while (rs.next()) {
@@ -62,6 +80,23 @@ public class CommandeDAO implements GenericDAO<Commande> {
 
     @Override
     public boolean create(Commande commande) {
+        try (Connection connection = DatabaseConnection.getInstance().getConnection()) {
+            return create(connection, commande);
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la création de la commande : " + e.getMessage());
+        }
+
+        return false;
+    }
+
+    /**
+     * Crée une commande sur une connexion donnée (pour participer à une transaction)
+     * @param connection La connexion à utiliser
+     * @param commande La commande à créer
+     * @return true si l'opération a réussi, false sinon
+     * @throws SQLException Si une erreur SQL se produit
+     */
+    private boolean create(Connection connection, Commande commande) throws SQLException {
         String query = "INSERT INTO commande (client_id, date_commande, statut, montant_total, montant_remise, note) " +
                 "VALUES (?, ?, ?, ?, ?, ?)";
 
@@ -83,8 +118,6 @@ public class CommandeDAO implements GenericDAO<Commande> {
                 }
                 return true;
             }
-        } catch (SQLException e) {
-            System.err.println("Erreur lors de la création de la commande : " + e.getMessage());
         }
 
         return false;
@@ -95,7 +128,8 @@ public class CommandeDAO implements GenericDAO<Commande> {
         String query = "UPDATE commande SET client_id = ?, date_commande = ?, statut = ?, " +
                 "montant_total = ?, montant_remise = ?, note = ? WHERE id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setInt(1, commande.getClientId());
             pstmt.setTimestamp(2, new Timestamp(commande.getDateCommande().getTime()));
             pstmt.setString(3, commande.getStatut());
@@ -116,7 +150,8 @@ public class CommandeDAO implements GenericDAO<Commande> {
     public boolean delete(int id) {
         String query = "DELETE FROM commande WHERE id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setInt(1, id);
 
             return pstmt.executeUpdate() > 0;
@@ -136,7 +171,8 @@ public class CommandeDAO implements GenericDAO<Commande> {
         List<Commande> commandes = new ArrayList<>();
         String query = "SELECT * FROM commande WHERE client_id = ? ORDER BY date_commande DESC";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setInt(1, clientId);
 
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -153,7 +189,7 @@ public class CommandeDAO implements GenericDAO<Commande> {
     }
 
     /**
-     * Recherche les lignes de commande d'une commande
+     * Recherche les lignes de commande d'une commande, avec leurs articles et marques
      * @param commandeId L'identifiant de la commande
      * @return Liste des lignes de commande
      */
@@ -163,7 +199,8 @@ public class CommandeDAO implements GenericDAO<Commande> {
                 "JOIN article_marque am ON lc.article_marque_id = am.id " +
                 "WHERE lc.commande_id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setInt(1, commandeId);
 
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -176,85 +213,543 @@ public class CommandeDAO implements GenericDAO<Commande> {
             System.err.println("Erreur lors de la recherche des lignes de commande : " + e.getMessage());
         }
 
+        hydraterLignes(lignes);
+        return lignes;
+    }
+
+    /**
+     * Recherche les lignes de plusieurs commandes, avec leurs articles et marques,
+     * en une requête par lot de TAILLE_LOT_IN commandes et une requête par lot d'articles
+     * @param commandeIds Les identifiants des commandes (les doublons sont ignorés)
+     * @return Les lignes groupées par identifiant de commande, dans l'ordre des identifiants demandés ;
+     *         chaque commande demandée a une entrée, vide si elle n'a pas de lignes ;
+     *         aucune entrée en cas d'erreur
+     */
+    public Map<Integer, List<LigneCommande>> findLignesForCommandes(Collection<Integer> commandeIds) {
+        Map<Integer, List<LigneCommande>> lignesParCommande = new LinkedHashMap<>();
+        for (Integer commandeId : commandeIds) {
+            lignesParCommande.putIfAbsent(commandeId, new ArrayList<>());
+        }
+        if (lignesParCommande.isEmpty()) {
+            return lignesParCommande;
+        }
+
+        List<Integer> ids = new ArrayList<>(lignesParCommande.keySet());
+        try (Connection connection = DatabaseConnection.getInstance().getConnection()) {
+            for (int debut = 0; debut < ids.size(); debut += TAILLE_LOT_IN) {
+                List<Integer> lot = ids.subList(debut, Math.min(debut + TAILLE_LOT_IN, ids.size()));
+                int parametres = parametresLot(lot.size());
+
+                try (PreparedStatement pstmt = connection.prepareStatement(requeteLignesCommandes(parametres))) {
+                    lierLot(pstmt, lot, parametres);
+
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            LigneCommande ligne = extractLigneCommandeFromResultSet(rs);
+                            lignesParCommande.get(ligne.getCommandeId()).add(ligne);
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la recherche des lignes de plusieurs commandes : " + e.getMessage());
+            // Pas de résultat partiel : une commande sans entrée n'est pas confondue avec une commande sans lignes
+            lignesParCommande.clear();
+        }
+
+        List<LigneCommande> lignes = new ArrayList<>();
+        for (List<LigneCommande> lignesCommande : lignesParCommande.values()) {
+            lignes.addAll(lignesCommande);
+        }
+        hydraterLignes(lignes);
+        return lignesParCommande;
+    }
+
+    /**
+     * Rattache l'article et la marque à l'ArticleMarque de chaque ligne
+     * Les articles sont lus par lots (voir ArticleDAO.findByIds), les marques viennent du cache
+     * de MarqueDAO : le nombre de requêtes dépend du nombre d'articles distincts, pas du nombre de lignes
+     * Les lignes d'un même article partagent le même objet Article
+     * @param lignes Les lignes de commande, dont l'ArticleMarque porte au moins les identifiants
+     */
+    public void hydraterLignes(List<LigneCommande> lignes) {
+        Map<Integer, Article> articles = new HashMap<>();
+        Map<Integer, Marque> marques = new HashMap<>();
+        for (LigneCommande ligne : lignes) {
+            ArticleMarque articleMarque = ligne.getArticleMarque();
+            if (articleMarque != null) {
+                if (articleMarque.getArticle() == null) {
+                    articles.put(articleMarque.getArticleId(), null);
+                }
+                if (articleMarque.getMarque() == null) {
+                    marques.put(articleMarque.getMarqueId(), null);
+                }
+            }
+        }
+
+        if (!articles.isEmpty()) {
+            for (Article article : articleDAO.findByIds(new ArrayList<>(articles.keySet()))) {
+                articles.put(article.getId(), article);
+            }
+        }
+        for (Integer marqueId : marques.keySet()) {
+            marques.put(marqueId, marqueDAO.findById(marqueId));
+        }
+
+        for (LigneCommande ligne : lignes) {
+            ArticleMarque articleMarque = ligne.getArticleMarque();
+            if (articleMarque != null) {
+                if (articleMarque.getArticle() == null) {
+                    articleMarque.setArticle(articles.get(articleMarque.getArticleId()));
+                }
+                if (articleMarque.getMarque() == null) {
+                    articleMarque.setMarque(marques.get(articleMarque.getMarqueId()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Requête des lignes de commande pour un nombre donné d'identifiants de commande
+     * Le nombre de paramètres est arrondi à une puissance de deux par l'appelant : seuls quelques
+     * textes SQL différents existent, et chacun reste dans le cache de requêtes préparées
+     */
+    private static String requeteLignesCommandes(int parametres) {
+        return "SELECT lc.*, am.article_id, am.marque_id FROM ligne_commande lc " +
+                "JOIN article_marque am ON lc.article_marque_id = am.id " +
+                "WHERE lc.commande_id IN (" + listeParametres(parametres) + ") ORDER BY lc.commande_id, lc.id";
+    }
+
+    /**
+     * Nombre de paramètres de la clause IN pour un lot : la taille du lot arrondie à la puissance
+     * de deux supérieure
+     */
+    private static int parametresLot(int taille) {
+        return Integer.highestOneBit(taille * 2 - 1);
+    }
+
+    private static String listeParametres(int parametres) {
+        StringBuilder liste = new StringBuilder();
+        for (int i = 0; i < parametres; i++) {
+            liste.append(i == 0 ? "?" : ", ?");
+        }
+        return liste.toString();
+    }
+
+    /**
+     * Lie les identifiants d'un lot aux paramètres de la clause IN
+     * Le lot est complété en répétant son dernier identifiant
+     */
+    private static void lierLot(PreparedStatement pstmt, List<Integer> lot, int parametres) throws SQLException {
+        for (int i = 0; i < parametres; i++) {
+            pstmt.setInt(i + 1, lot.get(Math.min(i, lot.size() - 1)));
+        }
+    }
+
+    /**
+     * Compte les lignes de commande, pour dimensionner la progression de l'export détaillé
+     * @return Le nombre de lignes de commande, -1 en cas d'erreur
+     */
+    public long compterLignesVentes() {
+        String query = "SELECT COUNT(*) FROM ligne_commande";
+
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(query)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            System.err.println("Erreur lors du comptage des lignes de commande : " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Exporte le détail des ventes (une ligne par ligne de commande) dans un fichier CSV
+     * Les lignes sont lues par un curseur en avant seulement, par lots de TAILLE_LOT_EXPORT,
+     * et écrites au fil de la lecture : la mémoire utilisée ne dépend pas du volume exporté
+     * @param csv Le fichier de destination
+     * @param annule Consulté à chaque ligne : l'export s'arrête dès qu'il renvoie true
+     * @param progression Reçoit le nombre de lignes déjà écrites, après chaque lot
+     * @return Le nombre de lignes écrites, -1 en cas d'erreur SQL
+     * @throws IOException Si l'écriture du fichier échoue
+     */
+    public long exporterLignesVentes(CsvWriter csv, BooleanSupplier annule, LongConsumer progression) throws IOException {
+        String query = "SELECT c.id AS commande_id, c.date_commande, c.client_id, c.statut, " +
+                "a.nom AS article, m.nom AS marque, lc.quantite, lc.prix_unitaire, lc.prix_total " +
+                "FROM ligne_commande lc " +
+                "JOIN commande c ON c.id = lc.commande_id " +
+                "JOIN article_marque am ON am.id = lc.article_marque_id " +
+                "JOIN article a ON a.id = am.article_id " +
+                "JOIN marque m ON m.id = am.marque_id " +
+                "ORDER BY lc.id";
+        SimpleDateFormat formatDate = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+
+        csv.ligne("Commande", "Date", "Client", "Statut", "Article", "Marque", "Quantité", "Prix unitaire", "Prix total");
+
+        long lignes = 0;
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            // Avec useCursorFetch, le pilote lit les lignes par lots au lieu de charger tout le résultat
+            pstmt.setFetchSize(TAILLE_LOT_EXPORT);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (!annule.getAsBoolean() && rs.next()) {
+                    Timestamp date = rs.getTimestamp("date_commande");
+                    csv.ligne(
+                            rs.getInt("commande_id"),
+                            date != null ? formatDate.format(date) : null,
+                            rs.getInt("client_id"),
+                            rs.getString("statut"),
+                            rs.getString("article"),
+                            rs.getString("marque"),
+                            rs.getInt("quantite"),
+                            rs.getBigDecimal("prix_unitaire"),
+                            rs.getBigDecimal("prix_total"));
+
+                    if (++lignes % TAILLE_LOT_EXPORT == 0) {
+                        progression.accept(lignes);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de l'export des lignes de commande : " + e.getMessage());
+            return -1;
+        }
+
+        csv.flush();
+        progression.accept(lignes);
         return lignes;
     }
 
     /**
      * Crée une commande et ses lignes dans une transaction
+     * Le stock des articles est décrémenté et les ventes cumulées dans les statistiques dans la même transaction
      * @param commande La commande à créer
      * @param lignes Les lignes de commande à créer
      * @return ID de la commande créée, -1 si échec
      */
     public int createWithLignes(Commande commande, List<LigneCommande> lignes) {
-        // Début de la transaction
-        try {
+        try (Connection connection = DatabaseConnection.getInstance().getConnection()) {
+            // Début de la transaction
             connection.setAutoCommit(false);
+            try {
+                // Création de la commande
+                if (create(connection, commande)) {
+                    // Réservation du stock : échoue si un article n'est plus disponible
+                    Map<Integer, Integer> quantites = quantitesParArticle(connection, lignes);
+                    if (!articleDAO.reserverStock(connection, quantites)) {
+                        connection.rollback();
+                        return -1;
+                    }
 
-            // Création de la commande
-            if (create(commande)) {
-                // Création des lignes de commande
-                for (LigneCommande ligne : lignes) {
-                    ligne.setCommandeId(commande.getId());
-                    if (!createLigneCommande(ligne)) {
+                    // Création des lignes de commande en un seul lot
+                    for (LigneCommande ligne : lignes) {
+                        ligne.setCommandeId(commande.getId());
+                    }
+                    if (!createLignesCommande(connection, lignes)) {
                         connection.rollback();
                         return -1;
                     }
+
+                    // Cumuls des statistiques, visibles en même temps que la commande
+                    statistiquesDAO.cumulerCommande(connection, commande.getId(), 1);
+
+                    connection.commit();
+                    DAOFactory.getCachedArticleDAO().invalidateAll(quantites.keySet());
+                    StatistiquesDAO.ventesModifiees();
+                    return commande.getId();
                 }
 
-                connection.commit();
-                return commande.getId();
+                connection.rollback();
+                return -1;
+            } catch (SQLException e) {
+                System.err.println("Erreur lors de la création de la commande avec lignes : " + e.getMessage());
+                try {
+                    connection.rollback();
+                } catch (SQLException ex) {
+                    System.err.println("Erreur lors du rollback : " + ex.getMessage());
+                }
+                return -1;
+            } finally {
+                try {
+                    connection.setAutoCommit(true);
+                } catch (SQLException e) {
+                    System.err.println("Erreur lors du rétablissement de l'autocommit : " + e.getMessage());
+                }
             }
-
-            connection.rollback();
-            return -1;
         } catch (SQLException e) {
             System.err.println("Erreur lors de la création de la commande avec lignes : " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Annule une commande dans une transaction : passe son statut à annulée, retire ses ventes
+     * des statistiques et remet ses articles en stock
+     * La mise à jour n'a lieu que si la commande n'était pas déjà annulée : deux annulations simultanées
+     * ne retirent pas deux fois les mêmes ventes et ne restituent pas deux fois le stock
+     * @param commandeId L'identifiant de la commande
+     * @return true si la commande a été annulée, false si elle n'existe pas, était déjà annulée ou en cas d'erreur
+     */
+    public boolean annulerCommande(int commandeId) {
+        return annulerCommandes(Collections.singletonList(commandeId)).contains(commandeId);
+    }
+
+    /**
+     * Annule plusieurs commandes (expiration des commandes impayées, par exemple)
+     * Les commandes sont traitées par lots de TAILLE_LOT_IN, une transaction par lot : chaque lot
+     * change les statuts, retire les ventes des statistiques et restitue le stock en un nombre
+     * fixe d'allers-retours, et une erreur n'annule que le lot en cours
+     * @param commandeIds Les identifiants des commandes (doublons et commandes déjà annulées ignorés)
+     * @return Les identifiants des commandes effectivement annulées, par ordre croissant
+     */
+    public List<Integer> annulerCommandes(Collection<Integer> commandeIds) {
+        // Ordre croissant : deux annulations simultanées verrouillent les commandes dans le même ordre
+        List<Integer> ids = new ArrayList<>(new TreeSet<>(commandeIds));
+        List<Integer> annulees = new ArrayList<>();
+        if (ids.isEmpty()) {
+            return annulees;
+        }
+
+        try (Connection connection = DatabaseConnection.getInstance().getConnection()) {
+            connection.setAutoCommit(false);
             try {
-                connection.rollback();
-            } catch (SQLException ex) {
-                System.err.println("Erreur lors du rollback : " + ex.getMessage());
+                for (int debut = 0; debut < ids.size(); debut += TAILLE_LOT_IN) {
+                    List<Integer> lot = ids.subList(debut, Math.min(debut + TAILLE_LOT_IN, ids.size()));
+                    try {
+                        List<Integer> annuleesLot = changerStatutAnnulee(connection, lot);
+                        Map<Integer, Integer> quantites = quantitesCommandees(connection, annuleesLot);
+
+                        statistiquesDAO.cumulerCommandes(connection, annuleesLot, -1);
+                        articleDAO.restituerStock(connection, quantites);
+
+                        connection.commit();
+                        annulees.addAll(annuleesLot);
+                        DAOFactory.getCachedArticleDAO().invalidateAll(quantites.keySet());
+                    } catch (SQLException e) {
+                        System.err.println("Erreur lors de l'annulation des commandes : " + e.getMessage());
+                        try {
+                            connection.rollback();
+                        } catch (SQLException ex) {
+                            System.err.println("Erreur lors du rollback : " + ex.getMessage());
+                        }
+                        break;
+                    }
+                }
+            } finally {
+                try {
+                    connection.setAutoCommit(true);
+                } catch (SQLException e) {
+                    System.err.println("Erreur lors du rétablissement de l'autocommit : " + e.getMessage());
+                }
             }
-            return -1;
-        } finally {
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de l'annulation des commandes : " + e.getMessage());
+        }
+
+        if (!annulees.isEmpty()) {
+            StatistiquesDAO.ventesModifiees();
+        }
+        return annulees;
+    }
+
+    /**
+     * Passe des commandes au statut annulée, en un lot de requêtes conditionnées au statut
+     * @param connection La connexion de la transaction en cours
+     * @param commandeIds Les identifiants des commandes, par ordre croissant
+     * @return Les identifiants des commandes dont le statut a changé
+     * @throws SQLException Si une erreur SQL se produit
+     */
+    private List<Integer> changerStatutAnnulee(Connection connection, List<Integer> commandeIds) throws SQLException {
+        String query = "UPDATE commande SET statut = 'annulee' WHERE id = ? AND statut <> 'annulee'";
+        List<Integer> annulees = new ArrayList<>();
+
+        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+            for (Integer commandeId : commandeIds) {
+                pstmt.setInt(1, commandeId);
+                pstmt.addBatch();
+            }
+
+            int[] counts = pstmt.executeBatch();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 1) {
+                    annulees.add(commandeIds.get(i));
+                }
+            }
+        }
+
+        return annulees;
+    }
+
+    /**
+     * Cumule les quantités commandées par article sur un ensemble de commandes, calculées par la base
+     * @param connection La connexion de la transaction en cours
+     * @param commandeIds Les identifiants des commandes (au plus TAILLE_LOT_IN)
+     * @return Quantité totale par identifiant d'article
+     * @throws SQLException Si une erreur SQL se produit
+     */
+    private Map<Integer, Integer> quantitesCommandees(Connection connection, List<Integer> commandeIds) throws SQLException {
+        Map<Integer, Integer> quantites = new HashMap<>();
+        if (commandeIds.isEmpty()) {
+            return quantites;
+        }
+
+        int parametres = parametresLot(commandeIds.size());
+        String query = "SELECT am.article_id, SUM(lc.quantite) AS quantite " +
+                "FROM ligne_commande lc JOIN article_marque am ON am.id = lc.article_marque_id " +
+                "WHERE lc.commande_id IN (" + listeParametres(parametres) + ") GROUP BY am.article_id";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+            lierLot(pstmt, commandeIds, parametres);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    quantites.put(rs.getInt("article_id"), rs.getInt("quantite"));
+                }
+            }
+        }
+
+        return quantites;
+    }
+
+    /**
+     * Décrémente le stock des articles d'une liste de lignes, en une seule transaction
+     * @param lignes Les lignes dont les quantités doivent être retirées du stock
+     * @return true si tout le stock a été réservé, false si un article était insuffisant
+     */
+    public boolean reserverStock(List<LigneCommande> lignes) {
+        try (Connection connection = DatabaseConnection.getInstance().getConnection()) {
+            connection.setAutoCommit(false);
             try {
-                connection.setAutoCommit(true);
+                Map<Integer, Integer> quantites = quantitesParArticle(connection, lignes);
+                if (articleDAO.reserverStock(connection, quantites)) {
+                    connection.commit();
+                    DAOFactory.getCachedArticleDAO().invalidateAll(quantites.keySet());
+                    return true;
+                }
+
+                connection.rollback();
+                return false;
             } catch (SQLException e) {
-                System.err.println("Erreur lors du rétablissement de l'autocommit : " + e.getMessage());
+                System.err.println("Erreur lors de la réservation du stock : " + e.getMessage());
+                try {
+                    connection.rollback();
+                } catch (SQLException ex) {
+                    System.err.println("Erreur lors du rollback : " + ex.getMessage());
+                }
+                return false;
+            } finally {
+                try {
+                    connection.setAutoCommit(true);
+                } catch (SQLException e) {
+                    System.err.println("Erreur lors du rétablissement de l'autocommit : " + e.getMessage());
+                }
             }
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la réservation du stock : " + e.getMessage());
+            return false;
         }
     }
 
     /**
-     * Crée une ligne de commande
-     * @param ligne La ligne de commande à créer
-     * @return true si l'opération a réussi, false sinon
+     * Cumule les quantités des lignes par article
+     * L'article est pris sur l'ArticleMarque de la ligne ; ceux qui ne sont pas renseignés sont lus
+     * en base en une requête par lot de TAILLE_LOT_IN relations article-marque
+     * @param connection La connexion de la transaction en cours
+     * @param lignes Les lignes de commande
+     * @return Quantité totale par identifiant d'article
+     * @throws SQLException Si une ligne référence une relation article-marque inconnue
      */
-    private boolean createLigneCommande(LigneCommande ligne) {
+    private Map<Integer, Integer> quantitesParArticle(Connection connection, List<LigneCommande> lignes) throws SQLException {
+        Map<Integer, Integer> articleParRelation = new HashMap<>();
+        for (LigneCommande ligne : lignes) {
+            if (articleIdRenseigne(ligne) <= 0) {
+                articleParRelation.put(ligne.getArticleMarqueId(), null);
+            }
+        }
+
+        List<Integer> relations = new ArrayList<>(articleParRelation.keySet());
+        for (int debut = 0; debut < relations.size(); debut += TAILLE_LOT_IN) {
+            List<Integer> lot = relations.subList(debut, Math.min(debut + TAILLE_LOT_IN, relations.size()));
+            int parametres = parametresLot(lot.size());
+            String query = "SELECT id, article_id FROM article_marque WHERE id IN (" + listeParametres(parametres) + ")";
+
+            try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+                lierLot(pstmt, lot, parametres);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        articleParRelation.put(rs.getInt("id"), rs.getInt("article_id"));
+                    }
+                }
+            }
+        }
+
+        Map<Integer, Integer> quantites = new HashMap<>();
+        for (LigneCommande ligne : lignes) {
+            int articleId = articleIdRenseigne(ligne);
+            if (articleId <= 0) {
+                Integer lu = articleParRelation.get(ligne.getArticleMarqueId());
+                if (lu == null) {
+                    throw new SQLException("Relation article-marque introuvable : " + ligne.getArticleMarqueId());
+                }
+                articleId = lu;
+            }
+
+            quantites.merge(articleId, ligne.getQuantite(), Integer::sum);
+        }
+
+        return quantites;
+    }
+
+    private static int articleIdRenseigne(LigneCommande ligne) {
+        ArticleMarque articleMarque = ligne.getArticleMarque();
+        return articleMarque != null ? articleMarque.getArticleId() : 0;
+    }
+
+    /**
+     * Crée les lignes de commande en lot (une seule requête préparée, un seul aller-retour)
+     * Les identifiants générés sont reportés sur les lignes, dans l'ordre d'insertion
+     * @param connection La connexion de la transaction en cours
+     * @param lignes Les lignes de commande à créer
+     * @return true si toutes les lignes ont été créées, false sinon
+     * @throws SQLException Si une erreur SQL se produit
+     */
+    private boolean createLignesCommande(Connection connection, List<LigneCommande> lignes) throws SQLException {
+        if (lignes.isEmpty()) {
+            return true;
+        }
+
         String query = "INSERT INTO ligne_commande (commande_id, article_marque_id, quantite, prix_unitaire, prix_total) " +
                 "VALUES (?, ?, ?, ?, ?)";
 
         try (PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
-            pstmt.setInt(1, ligne.getCommandeId());
-            pstmt.setInt(2, ligne.getArticleMarqueId());
-            pstmt.setInt(3, ligne.getQuantite());
-            pstmt.setDouble(4, ligne.getPrixUnitaire());
-            pstmt.setDouble(5, ligne.getPrixTotal());
+            for (LigneCommande ligne : lignes) {
+                pstmt.setInt(1, ligne.getCommandeId());
+                pstmt.setInt(2, ligne.getArticleMarqueId());
+                pstmt.setInt(3, ligne.getQuantite());
+                pstmt.setDouble(4, ligne.getPrixUnitaire());
+                pstmt.setDouble(5, ligne.getPrixTotal());
+                pstmt.addBatch();
+            }
 
-            int affectedRows = pstmt.executeUpdate();
+            // Avec rewriteBatchedStatements, le pilote renvoie SUCCESS_NO_INFO pour chaque ligne
+            for (int count : pstmt.executeBatch()) {
+                if (count == 0 || count == Statement.EXECUTE_FAILED) {
+                    return false;
+                }
+            }
 
-            if (affectedRows > 0) {
-                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        ligne.setId(generatedKeys.getInt(1));
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                for (LigneCommande ligne : lignes) {
+                    if (!generatedKeys.next()) {
+                        return false;
                     }
+                    ligne.setId(generatedKeys.getInt(1));
                 }
-                return true;
             }
-        } catch (SQLException e) {
-            System.err.println("Erreur lors de la création de la ligne de commande : " + e.getMessage());
+            return true;
         }
-
-        return false;
     }
 
     /**
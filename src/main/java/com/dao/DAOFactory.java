@@ -1,13 +1,20 @@
 
 package main.java.com.dao;
+
+import main.java.com.model.Article;
+
 /**
  * Factory pour créer les instances de DAO
  * Utilise le pattern Factory pour centraliser la création des objets DAO
  */
 public class DAOFactory { 
+    // Configuration du cache des articles
+    private static final int ARTICLE_CACHE_MAX_ENTRIES = 10_000;
+    private static final long ARTICLE_CACHE_TTL_MS = 5 * 60_000;
 
+    private static final CachedDAO<Article> ARTICLE_CACHE = new CachedDAO<>("article", new ArticleDAO(),
+            Article::getId, DAOFactory::copyArticle, ARTICLE_CACHE_MAX_ENTRIES, ARTICLE_CACHE_TTL_MS);
 
-    
     /**
      * Crée et retourne une instance de ArticleDAO
      * @return Une instance de ArticleDAO
@@ -16,6 +23,20 @@ public class DAOFactory {
         return new ArticleDAO();
     }
 
+    /**
+     * Retourne le DAO des articles avec cache en lecture, partagé par toute l'application
+     * À ne pas utiliser pour décider d'une quantité en stock : le stock en cache peut être en retard
+     * @return Le DAO des articles avec cache
+     */
+    public static CachedDAO<Article> getCachedArticleDAO() {
+        return ARTICLE_CACHE;
+    }
+
+    private static Article copyArticle(Article article) {
+        return new Article(article.getId(), article.getNom(), article.getDescription(), article.getPrixUnitaire(),
+                article.getPrixGros(), article.getQuantiteGros(), article.getStock(), article.getImageUrl());
+    }
+
     /**
      * Crée et retourne une instance de ClientDAO
      * @return Une instance de ClientDAO
@@ -40,6 +61,30 @@ public class DAOFactory {
         return new MarqueDAO();
     }
 
+    /**
+     * Crée et retourne une instance de PaiementDAO
+     * @return Une instance de PaiementDAO
+     */
+    public static PaiementDAO getPaiementDAO() {
+        return new PaiementDAO();
+    }
+
+    /**
+     * Crée et retourne une instance de RemiseDAO
+     * @return Une instance de RemiseDAO
+     */
+    public static RemiseDAO getRemiseDAO() {
+        return new RemiseDAO();
+    }
+
+    /**
+     * Crée et retourne une instance de StatistiquesDAO
+     * @return Une instance de StatistiquesDAO
+     */
+    public static StatistiquesDAO getStatistiquesDAO() {
+        return new StatistiquesDAO();
+    }
+
     /**
      * Crée et retourne une instance de UtilisateurDAO
      * @return Une instance de UtilisateurDAO
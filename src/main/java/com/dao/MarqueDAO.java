@@ -5,24 +5,75 @@ import main.java.com.model.Marque;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * Classe DAO pour l'entité Marque
+ * Les marques changent rarement : elles sont gardées en mémoire, pour tout le processus,
+ * et les lectures par ID, par nom ou de la liste complète ne touchent pas la base
+ * L'unicité du nom est garantie par la clé uk_marque_nom (resource/sql/marque_nom_unique.sql)
  */
 public class MarqueDAO implements GenericDAO<Marque> {
-    private Connection connection;
+    // Code d'erreur MySQL d'une clé unique violée
+    private static final int ER_DUP_ENTRY = 1062;
 
-    public MarqueDAO() {
-        this.connection = DatabaseConnection.getInstance().getConnection();
-    }
+    // Nombre d'écritures tentées quand le nom choisi est déjà pris
+    private static final int MAX_TENTATIVES_NOM = 5;
+
+    // Durée pendant laquelle un ID introuvable en base n'est pas relu
+    private static final long ABSENCE_TTL_MS = 60_000;
+
+    // Instantané du cache, remplacé en bloc (null = à recharger)
+    private static volatile Snapshot cache;
+
+    // Incrémenté à chaque modification du cache (verrou de la classe) : un chargement commencé
+    // avant n'est pas publié
+    private static long generation;
+
+    // IDs introuvables en base, avec leur date d'expiration (verrou de la classe)
+    private static final Map<Integer, Long> absentes = new HashMap<>();
 
     @Override
     public Marque findById(int id) {
+        Marque cached = getCache().parId.get(id);
+        if (cached != null) {
+            return copy(cached);
+        }
+
+        // ID récemment cherché en vain : pas de nouvelle requête (rendu d'une table, par exemple)
+        synchronized (MarqueDAO.class) {
+            Long expiration = absentes.get(id);
+            if (expiration != null) {
+                if (System.currentTimeMillis() < expiration) {
+                    return null;
+                }
+                absentes.remove(id);
+            }
+        }
+
+        // Marque absente du cache (créée par un autre processus ?) : lecture en base
+        Marque marque = loadById(id);
+        if (marque != null) {
+            ajouterAuCache(marque);
+        } else {
+            synchronized (MarqueDAO.class) {
+                absentes.put(id, System.currentTimeMillis() + ABSENCE_TTL_MS);
+            }
+        }
+        return marque;
+    }
+
+    private Marque loadById(int id) {
         Marque marque = null;
         String query = "SELECT * FROM marque WHERE id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setInt(1, id);
 
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -39,18 +90,25 @@ public class MarqueDAO implements GenericDAO<Marque> {
 
     @Override
     public List<Marque> findAll() {
+        List<Marque> marques = new ArrayList<>();
+        for (Marque marque : getCache().triees) {
+            marques.add(copy(marque));
+        }
+        return marques;
+    }
+
+    private List<Marque> loadAll() throws SQLException {
         List<Marque> marques = new ArrayList<>();
         String query = "SELECT * FROM marque ORDER BY nom";
 
-        try (Statement stmt = connection.createStatement();
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(query)) {
 
             while (rs.next()) {
                 Marque marque = extractMarqueFromResultSet(rs);
                 marques.add(marque);
             }
-        } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération de toutes les marques : " + e.getMessage());
         }
 
         return marques;
@@ -59,9 +117,20 @@ public class MarqueDAO implements GenericDAO<Marque> {
     
     @Override
     public boolean create(Marque marque) {
+        try {
+            return inserer(marque);
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la création de la marque : " + e.getMessage());
+        }
+
+        return false;
+    }
+
+    private boolean inserer(Marque marque) throws SQLException {
         String query = "INSERT INTO marque (nom, description, logo_url) VALUES (?, ?, ?)";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setString(1, marque.getNom());
             pstmt.setString(2, marque.getDescription());
             pstmt.setString(3, marque.getLogoUrl());
@@ -74,10 +143,9 @@ public class MarqueDAO implements GenericDAO<Marque> {
                         marque.setId(generatedKeys.getInt(1));
                     }
                 }
+                ajouterAuCache(marque);
                 return true;
             }
-        } catch (SQLException e) {
-            System.err.println("Erreur lors de la création de la marque : " + e.getMessage());
         }
 
         return false;
@@ -87,13 +155,16 @@ public class MarqueDAO implements GenericDAO<Marque> {
     public boolean update(Marque marque) {
         String query = "UPDATE marque SET nom = ?, description = ?, logo_url = ? WHERE id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setString(1, marque.getNom());
             pstmt.setString(2, marque.getDescription());
             pstmt.setString(3, marque.getLogoUrl());
             pstmt.setInt(4, marque.getId());
 
-            return pstmt.executeUpdate() > 0;
+            boolean updated = pstmt.executeUpdate() > 0;
+            invalidateCache();
+            return updated;
         } catch (SQLException e) {
             System.err.println("Erreur lors de la mise à jour de la marque : " + e.getMessage());
         }
@@ -101,14 +172,55 @@ public class MarqueDAO implements GenericDAO<Marque> {
         return false;
     }
 
+    /**
+     * Crée une marque sous un nom libre
+     * Le nom demandé est essayé s'il est absent de l'index en mémoire, sinon un nom suffixé ;
+     * aucune lecture préalable en base : la clé uk_marque_nom arbitre, et un nom pris entre-temps
+     * par un autre poste fait retenter l'insertion sous un autre nom
+     * @param marque La marque à créer ; son nom est remplacé par le nom finalement retenu
+     * @return true si la marque a été créée, false sinon
+     */
+    public boolean createAvecNomUnique(Marque marque) {
+        String nomDemande = marque.getNom();
+        if (nomDemande == null || nomDemande.trim().isEmpty()) {
+            return false;
+        }
+        String candidat = nomDemande;
+        for (int tentative = 0; tentative < MAX_TENTATIVES_NOM; tentative++) {
+            while (!isNomLibre(candidat)) {
+                candidat = nomDemande + " " + suffixeAleatoire();
+            }
+            marque.setNom(candidat);
+            try {
+                return inserer(marque);
+            } catch (SQLException e) {
+                if (e.getErrorCode() != ER_DUP_ENTRY) {
+                    System.err.println("Erreur lors de la création de la marque : " + e.getMessage());
+                    marque.setNom(nomDemande);
+                    return false;
+                }
+                // Nom pris par un autre poste : l'index en mémoire est en retard
+                invalidateCache();
+                candidat = nomDemande + " " + suffixeAleatoire();
+            }
+        }
+
+        System.err.println("Erreur lors de la création de la marque : aucun nom libre trouvé pour " + nomDemande);
+        marque.setNom(nomDemande);
+        return false;
+    }
+
     @Override
     public boolean delete(int id) {
         String query = "DELETE FROM marque WHERE id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setInt(1, id);
 
-            return pstmt.executeUpdate() > 0;
+            boolean deleted = pstmt.executeUpdate() > 0;
+            invalidateCache();
+            return deleted;
         } catch (SQLException e) {
             System.err.println("Erreur lors de la suppression de la marque : " + e.getMessage());
         }
@@ -122,10 +234,47 @@ public class MarqueDAO implements GenericDAO<Marque> {
      * @return La marque trouvée ou null
      */
     public Marque findByNom(String nom) {
+        if (nom == null) {
+            return null;
+        }
+        Marque cached = getCache().parNom.get(normalize(nom));
+        if (cached != null) {
+            return copy(cached);
+        }
+
+        try {
+            Marque marque = loadByNom(nom);
+            if (marque != null) {
+                ajouterAuCache(marque);
+            }
+            return marque;
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la recherche de la marque par nom : " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Indique si un nom est libre d'après l'index des noms en mémoire (sans requête)
+     * Une marque créée par un autre poste n'y figure pas encore : la clé uk_marque_nom reste
+     * l'arbitre final (voir createAvecNomUnique)
+     * @param nom Le nom à tester
+     * @return true si aucune marque connue ne porte ce nom (à la casse près)
+     */
+    public boolean isNomLibre(String nom) {
+        return nom != null && !getCache().parNom.containsKey(normalize(nom));
+    }
+
+    private static String suffixeAleatoire() {
+        return UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private Marque loadByNom(String nom) throws SQLException {
         Marque marque = null;
         String query = "SELECT * FROM marque WHERE nom = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setString(1, nom);
 
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -133,8 +282,6 @@ public class MarqueDAO implements GenericDAO<Marque> {
                     marque = extractMarqueFromResultSet(rs);
                 }
             }
-        } catch (SQLException e) {
-            System.err.println("Erreur lors de la recherche de la marque par nom : " + e.getMessage());
         }
 
         return marque;
@@ -151,7 +298,8 @@ public class MarqueDAO implements GenericDAO<Marque> {
                 "INNER JOIN article_marque am ON m.id = am.marque_id " +
                 "WHERE am.article_id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setInt(1, articleId);
 
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -167,6 +315,124 @@ public class MarqueDAO implements GenericDAO<Marque> {
         return marques;
     }
 
+    /**
+     * Vide le cache des marques
+     * À appeler si la table marque est modifiée en dehors de ce DAO
+     */
+    public static void invalidateCache() {
+        synchronized (MarqueDAO.class) {
+            generation++;
+            cache = null;
+            absentes.clear();
+        }
+    }
+
+    /**
+     * Ajoute au cache une marque qui vient d'être créée ou lue en base, sans le recharger
+     * (une création en série ne relit pas toute la table à chaque marque)
+     */
+    private static void ajouterAuCache(Marque marque) {
+        synchronized (MarqueDAO.class) {
+            // Un chargement en cours a pu lire la table avant cette insertion
+            generation++;
+            absentes.remove(marque.getId());
+            Snapshot snapshot = cache;
+            if (snapshot != null) {
+                cache = snapshot.avec(copy(marque));
+            }
+        }
+    }
+
+    /**
+     * Retourne le cache, en le chargeant depuis la base si nécessaire
+     * Le chargement se fait hors verrou ; il n'est publié que si le cache n'a pas été modifié
+     * entre-temps. Un chargement en échec n'est pas mis en cache : l'appelant reçoit un
+     * instantané vide et le prochain appel retente la lecture
+     */
+    private Snapshot getCache() {
+        Snapshot snapshot = cache;
+        if (snapshot != null) {
+            return snapshot;
+        }
+
+        long startGeneration;
+        synchronized (MarqueDAO.class) {
+            startGeneration = generation;
+        }
+
+        try {
+            snapshot = new Snapshot(loadAll());
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la récupération de toutes les marques : " + e.getMessage());
+            return new Snapshot(new ArrayList<>());
+        }
+
+        synchronized (MarqueDAO.class) {
+            if (generation == startGeneration) {
+                cache = snapshot;
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Clé de recherche par nom : la comparaison SQL sur marque.nom ignore la casse
+     */
+    private static String normalize(String nom) {
+        return nom.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Copie remise à l'appelant, pour que le cache partagé ne soit jamais modifié
+     */
+    private static Marque copy(Marque marque) {
+        return new Marque(marque.getId(), marque.getNom(), marque.getDescription(), marque.getLogoUrl());
+    }
+
+    /**
+     * Contenu du cache, immuable une fois construit
+     */
+    private static final class Snapshot {
+        private final List<Marque> triees;
+        private final Map<Integer, Marque> parId = new HashMap<>();
+        private final Map<String, Marque> parNom = new HashMap<>();
+
+        /**
+         * Nouvel instantané contenant en plus la marque donnée (à la place d'une marque de même ID),
+         * à sa place dans l'ordre des noms
+         */
+        private Snapshot avec(Marque marque) {
+            List<Marque> marques = new ArrayList<>(triees.size() + 1);
+            for (Marque existante : triees) {
+                if (existante.getId() != marque.getId()) {
+                    marques.add(existante);
+                }
+            }
+            int position = 0;
+            while (position < marques.size() && compareNoms(marques.get(position), marque) <= 0) {
+                position++;
+            }
+            marques.add(position, marque);
+            return new Snapshot(marques);
+        }
+
+        private static int compareNoms(Marque a, Marque b) {
+            String nomA = a.getNom() != null ? a.getNom() : "";
+            String nomB = b.getNom() != null ? b.getNom() : "";
+            return String.CASE_INSENSITIVE_ORDER.compare(nomA, nomB);
+        }
+
+        private Snapshot(List<Marque> marques) {
+            this.triees = Collections.unmodifiableList(marques);
+            for (Marque marque : marques) {
+                parId.put(marque.getId(), marque);
+                if (marque.getNom() != null) {
+                    parNom.putIfAbsent(normalize(marque.getNom()), marque);
+                }
+            }
+        }
+    }
+
     /**
      * Extrait une marque d'un ResultSet
      * @param rs ResultSet contenant les données
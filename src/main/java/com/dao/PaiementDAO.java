@@ -0,0 +1,309 @@
+package main.java.com.dao;
+
+import main.java.com.config.DatabaseConnection;
+import main.java.com.model.Paiement;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Classe DAO pour l'entité Paiement
+ */
+public class PaiementDAO implements GenericDAO<Paiement> {
+    // Nombre maximal de paiements réglés par transaction
+    private static final int TAILLE_LOT_REGLEMENT = 256;
+
+    @Override
+    public Paiement findById(int id) {
+        Paiement paiement = null;
+        String query = "SELECT * FROM paiement WHERE id = ?";
+
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setInt(1, id);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    paiement = extractPaiementFromResultSet(rs);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la recherche du paiement par ID : " + e.getMessage());
+        }
+
+        return paiement;
+    }
+
+    @Override
+    public List<Paiement> findAll() {
+        List<Paiement> paiements = new ArrayList<>();
+        String query = "SELECT * FROM paiement ORDER BY date_paiement DESC";
+
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(query)) {
+
+            while (rs.next()) {
+                paiements.add(extractPaiementFromResultSet(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la récupération de tous les paiements : " + e.getMessage());
+        }
+
+        return paiements;
+    }
+
+    @Override
+    public boolean create(Paiement paiement) {
+        String query = "INSERT INTO paiement (commande_id, montant, date_paiement, methode, statut) " +
+                "VALUES (?, ?, ?, ?, ?)";
+
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setInt(1, paiement.getCommandeId());
+            pstmt.setDouble(2, paiement.getMontant());
+            pstmt.setTimestamp(3, new Timestamp(paiement.getDatePaiement().getTime()));
+            pstmt.setString(4, paiement.getMethode());
+            pstmt.setString(5, paiement.getStatut());
+
+            int affectedRows = pstmt.executeUpdate();
+
+            if (affectedRows > 0) {
+                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        paiement.setId(generatedKeys.getInt(1));
+                    }
+                }
+                return true;
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la création du paiement : " + e.getMessage());
+        }
+
+        return false;
+    }
+
+    @Override
+    public boolean update(Paiement paiement) {
+        String query = "UPDATE paiement SET commande_id = ?, montant = ?, date_paiement = ?, methode = ?, " +
+                "statut = ? WHERE id = ?";
+
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setInt(1, paiement.getCommandeId());
+            pstmt.setDouble(2, paiement.getMontant());
+            pstmt.setTimestamp(3, new Timestamp(paiement.getDatePaiement().getTime()));
+            pstmt.setString(4, paiement.getMethode());
+            pstmt.setString(5, paiement.getStatut());
+            pstmt.setInt(6, paiement.getId());
+
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la mise à jour du paiement : " + e.getMessage());
+        }
+
+        return false;
+    }
+
+    @Override
+    public boolean delete(int id) {
+        String query = "DELETE FROM paiement WHERE id = ?";
+
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setInt(1, id);
+
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la suppression du paiement : " + e.getMessage());
+        }
+
+        return false;
+    }
+
+    /**
+     * Recherche les paiements d'une commande
+     * @param commandeId L'identifiant de la commande
+     * @return Liste des paiements de la commande
+     */
+    public List<Paiement> findByCommande(int commandeId) {
+        List<Paiement> paiements = new ArrayList<>();
+        String query = "SELECT * FROM paiement WHERE commande_id = ? ORDER BY date_paiement DESC";
+
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setInt(1, commandeId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    paiements.add(extractPaiementFromResultSet(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la recherche des paiements par commande : " + e.getMessage());
+        }
+
+        return paiements;
+    }
+
+    /**
+     * Met à jour le statut d'un paiement
+     * @param id L'identifiant du paiement
+     * @param statut Le nouveau statut
+     * @return true si l'opération a réussi, false sinon
+     */
+    public boolean updateStatus(int id, String statut) {
+        String query = "UPDATE paiement SET statut = ? WHERE id = ?";
+
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setString(1, statut);
+            pstmt.setInt(2, id);
+
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la mise à jour du statut du paiement : " + e.getMessage());
+        }
+
+        return false;
+    }
+
+    /**
+     * Règle un paiement : le paiement passe de en_attente à valide et sa commande de en_cours à validee,
+     * dans une même transaction
+     * @param paiementId L'identifiant du paiement
+     * @return true si le paiement a été réglé, false s'il n'était pas en attente, si sa commande
+     *         n'était pas en cours ou en cas d'erreur (aucune modification dans ces cas)
+     */
+    public boolean reglerPaiement(int paiementId) {
+        return reglerPaiements(Collections.singletonList(paiementId)).contains(paiementId);
+    }
+
+    /**
+     * Règle plusieurs paiements (rapprochement bancaire, par exemple)
+     * Les paiements sont traités par lots de TAILLE_LOT_REGLEMENT, une transaction par lot ; chaque
+     * lot coûte un nombre fixe d'allers-retours, quel que soit le nombre de paiements. Les mises à jour
+     * ne portent que sur le statut et sont conditionnées au statut attendu : un paiement déjà traité,
+     * ou dont la commande n'est plus en cours, est laissé tel quel
+     * @param paiementIds Les identifiants des paiements (doublons ignorés)
+     * @return Les identifiants des paiements effectivement réglés, par ordre croissant
+     */
+    public List<Integer> reglerPaiements(Collection<Integer> paiementIds) {
+        // Ordre croissant : deux règlements simultanés verrouillent les paiements dans le même ordre
+        List<Integer> ids = new ArrayList<>(new TreeSet<>(paiementIds));
+        List<Integer> regles = new ArrayList<>();
+        if (ids.isEmpty()) {
+            return regles;
+        }
+
+        try (Connection connection = DatabaseConnection.getInstance().getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                for (int debut = 0; debut < ids.size(); debut += TAILLE_LOT_REGLEMENT) {
+                    List<Integer> lot = ids.subList(debut, Math.min(debut + TAILLE_LOT_REGLEMENT, ids.size()));
+                    try {
+                        List<Integer> reglesLot = reglerLot(connection, lot);
+                        connection.commit();
+                        regles.addAll(reglesLot);
+                    } catch (SQLException e) {
+                        System.err.println("Erreur lors du règlement des paiements : " + e.getMessage());
+                        try {
+                            connection.rollback();
+                        } catch (SQLException ex) {
+                            System.err.println("Erreur lors du rollback : " + ex.getMessage());
+                        }
+                        break;
+                    }
+                }
+            } finally {
+                try {
+                    connection.setAutoCommit(true);
+                } catch (SQLException e) {
+                    System.err.println("Erreur lors du rétablissement de l'autocommit : " + e.getMessage());
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur lors du règlement des paiements : " + e.getMessage());
+        }
+
+        return regles;
+    }
+
+    /**
+     * Règle un lot de paiements dans la transaction en cours (trois requêtes en lot au plus)
+     * @param connection La connexion de la transaction en cours
+     * @param paiementIds Les identifiants des paiements, par ordre croissant
+     * @return Les identifiants des paiements réglés
+     * @throws SQLException Si une erreur SQL se produit
+     */
+    private List<Integer> reglerLot(Connection connection, List<Integer> paiementIds) throws SQLException {
+        String validerPaiement = "UPDATE paiement SET statut = 'valide' WHERE id = ? AND statut = 'en_attente'";
+        String validerCommande = "UPDATE commande c JOIN paiement p ON p.commande_id = c.id " +
+                "SET c.statut = 'validee' WHERE p.id = ? AND c.statut = 'en_cours'";
+        String retablirPaiement = "UPDATE paiement SET statut = 'en_attente' WHERE id = ? AND statut = 'valide'";
+
+        // Paiements en attente, verrouillés jusqu'à la fin de la transaction
+        List<Integer> valides = executerParId(connection, validerPaiement, paiementIds);
+
+        // Commandes en cours ; une commande déjà validée (second paiement du même lot, par exemple)
+        // ou annulée n'est pas modifiée, et son paiement est remis en attente
+        List<Integer> regles = executerParId(connection, validerCommande, valides);
+        List<Integer> refuses = new ArrayList<>(valides);
+        refuses.removeAll(regles);
+        executerParId(connection, retablirPaiement, refuses);
+
+        return regles;
+    }
+
+    /**
+     * Exécute en un seul lot une mise à jour paramétrée par un identifiant
+     * @param connection La connexion de la transaction en cours
+     * @param query La requête, dont l'unique paramètre est l'identifiant
+     * @param ids Les identifiants
+     * @return Les identifiants pour lesquels exactement une ligne a été modifiée
+     * @throws SQLException Si une erreur SQL se produit
+     */
+    private static List<Integer> executerParId(Connection connection, String query, List<Integer> ids) throws SQLException {
+        List<Integer> modifies = new ArrayList<>();
+        if (ids.isEmpty()) {
+            return modifies;
+        }
+
+        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+            for (Integer id : ids) {
+                pstmt.setInt(1, id);
+                pstmt.addBatch();
+            }
+
+            int[] counts = pstmt.executeBatch();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 1) {
+                    modifies.add(ids.get(i));
+                }
+            }
+        }
+
+        return modifies;
+    }
+
+    /**
+     * Extrait un paiement d'un ResultSet
+     * @param rs ResultSet contenant les données
+     * @return Le paiement créé
+     * @throws SQLException Si une erreur SQL se produit
+     */
+    private Paiement extractPaiementFromResultSet(ResultSet rs) throws SQLException {
+        Paiement paiement = new Paiement();
+        paiement.setId(rs.getInt("id"));
+        paiement.setCommandeId(rs.getInt("commande_id"));
+        paiement.setMontant(rs.getDouble("montant"));
+        paiement.setDatePaiement(rs.getTimestamp("date_paiement"));
+        paiement.setMethode(rs.getString("methode"));
+        paiement.setStatut(rs.getString("statut"));
+        return paiement;
+    }
+}
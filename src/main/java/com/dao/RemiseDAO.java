@@ -0,0 +1,367 @@
+package main.java.com.dao;
+
+import main.java.com.config.DatabaseConnection;
+import main.java.com.model.Remise;
+import main.java.com.util.IntervalTree;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Classe DAO pour l'entité Remise
+ * Les remises sont indexées en mémoire, pour tout le processus : par code (table de hachage)
+ * et par période de validité (arbre d'intervalles). Retrouver un code au paiement ou lister
+ * les remises en cours ne parcourt ni la table ni la liste des remises, même avec des centaines
+ * de milliers de codes à usage unique
+ * Schéma de la table : resource/sql/remise.sql
+ */
+public class RemiseDAO implements GenericDAO<Remise> {
+    // Index chargé à la première lecture (null = à recharger), protégé par le verrou de la classe
+    private static Index index;
+
+    // Incrémenté à chaque modification de l'index (verrou de la classe) : un chargement commencé
+    // avant n'est pas publié
+    private static long generation;
+
+    @Override
+    public Remise findById(int id) {
+        Index courant = getIndex();
+        if (courant != null) {
+            synchronized (RemiseDAO.class) {
+                Remise cached = courant.parId.get(id);
+                if (cached != null) {
+                    return copy(cached);
+                }
+            }
+        }
+
+        // Remise absente de l'index (créée par un autre processus ?) : lecture en base
+        Remise remise = load("SELECT * FROM remise WHERE id = ?", id, "par ID");
+        ajouterAIndex(remise);
+        return remise;
+    }
+
+    @Override
+    public List<Remise> findAll() {
+        List<Remise> remises = new ArrayList<>();
+        Index courant = getIndex();
+        if (courant == null) {
+            return remises;
+        }
+        synchronized (RemiseDAO.class) {
+            for (Remise remise : courant.parId.values()) {
+                remises.add(copy(remise));
+            }
+        }
+        remises.sort(Comparator.comparingInt(Remise::getId));
+        return remises;
+    }
+
+    private List<Remise> loadAll() throws SQLException {
+        List<Remise> remises = new ArrayList<>();
+        String query = "SELECT * FROM remise";
+
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.setFetchSize(1000);
+            try (ResultSet rs = stmt.executeQuery(query)) {
+                while (rs.next()) {
+                    remises.add(extractRemiseFromResultSet(rs));
+                }
+            }
+        }
+
+        return remises;
+    }
+
+    /**
+     * Recherche une remise par son code (sans tenir compte de la casse ni des espaces autour)
+     * @param code Le code saisi
+     * @return La remise trouvée ou null
+     */
+    public Remise findByCode(String code) {
+        if (code == null || code.trim().isEmpty()) {
+            return null;
+        }
+        Index courant = getIndex();
+        if (courant != null) {
+            synchronized (RemiseDAO.class) {
+                Remise cached = courant.parCode.get(normalize(code));
+                if (cached != null) {
+                    return copy(cached);
+                }
+            }
+        }
+
+        // Code absent de l'index : lecture par la clé unique, au cas où il aurait été créé ailleurs
+        Remise remise = load("SELECT * FROM remise WHERE code = ?", code.trim(), "par code");
+        ajouterAIndex(remise);
+        return remise;
+    }
+
+    /**
+     * Récupère les remises valides à une date
+     * @param date La date
+     * @return Les remises dont la période de validité contient la date, par date de début croissante
+     */
+    public List<Remise> findActives(Date date) {
+        List<Remise> remises = new ArrayList<>();
+        Index courant = getIndex();
+        if (courant == null) {
+            return remises;
+        }
+        synchronized (RemiseDAO.class) {
+            for (Remise remise : courant.periodes.containing(date.getTime())) {
+                remises.add(copy(remise));
+            }
+        }
+        return remises;
+    }
+
+    private Remise load(String query, Object valeur, String description) {
+        Remise remise = null;
+
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setObject(1, valeur);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    remise = extractRemiseFromResultSet(rs);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la recherche de la remise " + description + " : " + e.getMessage());
+        }
+
+        return remise;
+    }
+
+    @Override
+    public boolean create(Remise remise) {
+        String query = "INSERT INTO remise (code, pourcentage, montant_fixe, date_debut, date_fin, quantite_min) " +
+                "VALUES (?, ?, ?, ?, ?, ?)";
+
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+            setParametres(pstmt, remise);
+
+            int affectedRows = pstmt.executeUpdate();
+
+            if (affectedRows > 0) {
+                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        remise.setId(generatedKeys.getInt(1));
+                    }
+                }
+                ajouterAIndex(remise);
+                return true;
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la création de la remise : " + e.getMessage());
+        }
+
+        return false;
+    }
+
+    @Override
+    public boolean update(Remise remise) {
+        String query = "UPDATE remise SET code = ?, pourcentage = ?, montant_fixe = ?, date_debut = ?, " +
+                "date_fin = ?, quantite_min = ? WHERE id = ?";
+
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            setParametres(pstmt, remise);
+            pstmt.setInt(7, remise.getId());
+
+            boolean updated = pstmt.executeUpdate() > 0;
+            if (updated) {
+                ajouterAIndex(remise);
+            }
+            return updated;
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la mise à jour de la remise : " + e.getMessage());
+        }
+
+        return false;
+    }
+
+    @Override
+    public boolean delete(int id) {
+        String query = "DELETE FROM remise WHERE id = ?";
+
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setInt(1, id);
+
+            boolean deleted = pstmt.executeUpdate() > 0;
+            synchronized (RemiseDAO.class) {
+                // Un chargement en cours a pu lire la table avant cette suppression
+                generation++;
+                if (index != null) {
+                    index.retirer(id);
+                }
+            }
+            return deleted;
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la suppression de la remise : " + e.getMessage());
+        }
+
+        return false;
+    }
+
+    /**
+     * Vide l'index des remises
+     * À appeler si la table remise est modifiée en dehors de ce DAO
+     */
+    public static void invalidateCache() {
+        synchronized (RemiseDAO.class) {
+            generation++;
+            index = null;
+        }
+    }
+
+    /**
+     * Retourne l'index, en le chargeant depuis la base si nécessaire
+     * Le chargement se fait hors verrou ; il n'est publié que si l'index n'a pas été modifié
+     * entre-temps. L'index retourné ne se lit que sous le verrou de la classe
+     * @return L'index, ou null si le chargement a échoué (rien n'est mis en cache, le prochain
+     *         appel retente la lecture)
+     */
+    private Index getIndex() {
+        long startGeneration;
+        synchronized (RemiseDAO.class) {
+            if (index != null) {
+                return index;
+            }
+            startGeneration = generation;
+        }
+
+        Index charge = new Index();
+        try {
+            for (Remise remise : loadAll()) {
+                charge.ajouter(remise);
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la récupération de toutes les remises : " + e.getMessage());
+            return null;
+        }
+
+        synchronized (RemiseDAO.class) {
+            if (index != null) {
+                return index;
+            }
+            if (generation == startGeneration) {
+                index = charge;
+            }
+        }
+        return charge;
+    }
+
+    /**
+     * Ajoute ou remplace une remise dans l'index, s'il est chargé
+     */
+    private static void ajouterAIndex(Remise remise) {
+        if (remise == null) {
+            return;
+        }
+        synchronized (RemiseDAO.class) {
+            // Un chargement en cours a pu lire la table avant cette écriture
+            generation++;
+            if (index != null) {
+                index.ajouter(copy(remise));
+            }
+        }
+    }
+
+    private static void setParametres(PreparedStatement pstmt, Remise remise) throws SQLException {
+        pstmt.setString(1, remise.getCode() != null ? remise.getCode().trim() : null);
+        pstmt.setDouble(2, remise.getPourcentage());
+        pstmt.setDouble(3, remise.getMontantFixe());
+        pstmt.setTimestamp(4, remise.getDateDebut() != null ? new Timestamp(remise.getDateDebut().getTime()) : null);
+        pstmt.setTimestamp(5, remise.getDateFin() != null ? new Timestamp(remise.getDateFin().getTime()) : null);
+        pstmt.setInt(6, remise.getQuantiteMin());
+    }
+
+    /**
+     * Clé de recherche par code : la comparaison SQL sur remise.code ignore la casse
+     */
+    private static String normalize(String code) {
+        return code.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Copie remise à l'appelant, pour que l'index partagé ne soit jamais modifié
+     */
+    private static Remise copy(Remise remise) {
+        return new Remise(remise.getId(), remise.getCode(), remise.getPourcentage(), remise.getMontantFixe(),
+                remise.getDateDebut() != null ? new Date(remise.getDateDebut().getTime()) : null,
+                remise.getDateFin() != null ? new Date(remise.getDateFin().getTime()) : null,
+                remise.getQuantiteMin());
+    }
+
+    /**
+     * Remises indexées par ID, par code et par période de validité
+     */
+    private static final class Index {
+        private final Map<Integer, Remise> parId = new HashMap<>();
+        private final Map<String, Remise> parCode = new HashMap<>();
+        private final IntervalTree<Remise> periodes = new IntervalTree<>();
+
+        private void ajouter(Remise remise) {
+            retirer(remise.getId());
+            parId.put(remise.getId(), remise);
+            if (remise.getCode() != null) {
+                parCode.put(normalize(remise.getCode()), remise);
+            }
+            // Une remise dont la fin précède le début n'est valide à aucune date
+            if (fin(remise) >= debut(remise)) {
+                periodes.add(debut(remise), fin(remise), remise.getId(), remise);
+            }
+        }
+
+        private void retirer(int id) {
+            Remise ancienne = parId.remove(id);
+            if (ancienne == null) {
+                return;
+            }
+            if (ancienne.getCode() != null) {
+                parCode.remove(normalize(ancienne.getCode()), ancienne);
+            }
+            periodes.remove(debut(ancienne), id);
+        }
+
+        // Une borne absente laisse la période ouverte de ce côté
+        private static long debut(Remise remise) {
+            return remise.getDateDebut() != null ? remise.getDateDebut().getTime() : Long.MIN_VALUE;
+        }
+
+        private static long fin(Remise remise) {
+            return remise.getDateFin() != null ? remise.getDateFin().getTime() : Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Extrait une remise d'un ResultSet
+     * @param rs ResultSet contenant les données
+     * @return La remise créée
+     * @throws SQLException Si une erreur SQL se produit
+     */
+    private Remise extractRemiseFromResultSet(ResultSet rs) throws SQLException {
+        Remise remise = new Remise();
+        remise.setId(rs.getInt("id"));
+        remise.setCode(rs.getString("code"));
+        remise.setPourcentage(rs.getDouble("pourcentage"));
+        remise.setMontantFixe(rs.getDouble("montant_fixe"));
+        remise.setDateDebut(rs.getTimestamp("date_debut"));
+        remise.setDateFin(rs.getTimestamp("date_fin"));
+        remise.setQuantiteMin(rs.getInt("quantite_min"));
+        return remise;
+    }
+}
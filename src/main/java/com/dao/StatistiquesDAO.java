@@ -0,0 +1,359 @@
+package main.java.com.dao;
+
+import main.java.com.config.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Agrégation des ventes pour les statistiques
+ * Les montants sont lus dans des tables pré-agrégées (jour × article-marque et mois × marque),
+ * tenues à jour dans la transaction de chaque commande : une requête lit un nombre de lignes
+ * proportionnel au nombre de jours ou de mois de la période, et non au nombre de commandes
+ * Les commandes annulées en sont retirées lors de l'annulation ; chaque requête est bornée dans le temps
+ * Schéma et reconstruction des tables : resource/sql/ventes_rollup.sql
+ */
+public class StatistiquesDAO {
+    // Temps maximal accordé par défaut à chaque requête d'agrégation
+    public static final int DEFAULT_TIMEOUT_SECONDS = 10;
+
+    // Libellé regroupant les marques au-delà de la limite demandée
+    public static final String LIBELLE_AUTRES = "Autres";
+
+    // Incrémentée à chaque commande créée ou annulée par cette application
+    private static final AtomicLong VERSION = new AtomicLong();
+
+    private final int timeoutSeconds;
+
+    /**
+     * Constructeur avec le délai par défaut
+     */
+    public StatistiquesDAO() {
+        this(DEFAULT_TIMEOUT_SECONDS);
+    }
+
+    /**
+     * Constructeur
+     * @param timeoutSeconds Temps maximal accordé à chaque requête, en secondes
+     */
+    public StatistiquesDAO(int timeoutSeconds) {
+        if (timeoutSeconds <= 0) {
+            throw new IllegalArgumentException("Délai de requête invalide : " + timeoutSeconds);
+        }
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    /**
+     * Montant des ventes par mois, sur la période [debut, fin[ arrondie aux mois entiers
+     * Les mois sans vente entre le premier et le dernier mois trouvés valent 0
+     * @param debut Début de la période (inclus), null pour ne pas borner
+     * @param fin Fin de la période (exclue), null pour ne pas borner
+     * @return Montant par mois ("yyyy-MM"), dans l'ordre chronologique
+     */
+    public Map<String, Double> ventesParMois(Date debut, Date fin) {
+        String query = "SELECT DATE_FORMAT(v.mois, '%Y-%m') AS libelle, SUM(v.montant) AS total " +
+                "FROM ventes_mois_marque v WHERE 1 = 1" + conditionPeriode("v.mois", debut, fin) +
+                " GROUP BY v.mois ORDER BY v.mois";
+
+        Map<String, Double> parMois = agreger(query, debutDeMois(debut), debutDeMois(fin, true), -1,
+                "des ventes par mois");
+        return completerMois(parMois);
+    }
+
+    /**
+     * Montant des ventes par jour, sur la période [debut, fin[ arrondie aux jours entiers
+     * Les jours sans vente entre le premier et le dernier jour trouvés valent 0
+     * @param debut Début de la période (inclus), null pour ne pas borner
+     * @param fin Fin de la période (exclue), null pour ne pas borner
+     * @return Montant par jour ("yyyy-MM-dd"), dans l'ordre chronologique
+     */
+    public Map<String, Double> ventesParJour(Date debut, Date fin) {
+        String query = "SELECT DATE_FORMAT(v.jour, '%Y-%m-%d') AS libelle, SUM(v.montant) AS total " +
+                "FROM ventes_jour_article_marque v WHERE 1 = 1" + conditionPeriode("v.jour", debut, fin) +
+                " GROUP BY v.jour ORDER BY v.jour";
+
+        Map<String, Double> parJour = agreger(query, debutDeJour(debut, false), debutDeJour(fin, true), -1,
+                "des ventes par jour");
+        return completerJours(parJour);
+    }
+
+    /**
+     * Articles les plus vendus (en montant), sur la période [debut, fin[ arrondie aux jours entiers
+     * @param debut Début de la période (inclus), null pour ne pas borner
+     * @param fin Fin de la période (exclue), null pour ne pas borner
+     * @param limit Nombre maximal d'articles retournés
+     * @return Montant par nom d'article, du plus vendu au moins vendu
+     */
+    public Map<String, Double> ventesParArticle(Date debut, Date fin, int limit) {
+        String query = "SELECT a.nom AS libelle, SUM(v.montant) AS total " +
+                "FROM ventes_jour_article_marque v " +
+                "JOIN article_marque am ON am.id = v.article_marque_id " +
+                "JOIN article a ON a.id = am.article_id " +
+                "WHERE 1 = 1" + conditionPeriode("v.jour", debut, fin) +
+                " GROUP BY a.id, a.nom ORDER BY total DESC LIMIT ?";
+
+        return agreger(query, debutDeJour(debut, false), debutDeJour(fin, true), limit, "des ventes par article");
+    }
+
+    /**
+     * Ventes par marque (en montant), sur la période [debut, fin[ arrondie aux mois entiers
+     * Les marques au-delà de la limite sont regroupées sous LIBELLE_AUTRES, pour que le total reste juste
+     * @param debut Début de la période (inclus), null pour ne pas borner
+     * @param fin Fin de la période (exclue), null pour ne pas borner
+     * @param limit Nombre maximal de marques détaillées
+     * @return Montant par nom de marque, de la plus vendue à la moins vendue
+     */
+    public Map<String, Double> ventesParMarque(Date debut, Date fin, int limit) {
+        String query = "SELECT m.nom AS libelle, SUM(v.montant) AS total " +
+                "FROM ventes_mois_marque v " +
+                "JOIN marque m ON m.id = v.marque_id " +
+                "WHERE 1 = 1" + conditionPeriode("v.mois", debut, fin) +
+                " GROUP BY m.id, m.nom ORDER BY total DESC";
+
+        // Le nombre de marques est faible : toutes sont lues, puis les dernières regroupées
+        Map<String, Double> parMarque = agreger(query, debutDeMois(debut), debutDeMois(fin, true), -1,
+                "des ventes par marque");
+        if (parMarque.size() <= limit) {
+            return parMarque;
+        }
+
+        Map<String, Double> resultat = new LinkedHashMap<>();
+        double autres = 0;
+        for (Map.Entry<String, Double> entry : parMarque.entrySet()) {
+            if (resultat.size() < limit) {
+                resultat.put(entry.getKey(), entry.getValue());
+            } else {
+                autres += entry.getValue();
+            }
+        }
+        resultat.merge(LIBELLE_AUTRES, autres, Double::sum);
+        return resultat;
+    }
+
+    /**
+     * Version des ventes, qui change à chaque commande créée ou annulée depuis cette application
+     * Sert de clé aux graphiques mis en cache : à lire avant les données qu'elle accompagne
+     * @return La version courante
+     */
+    public static long getVersion() {
+        return VERSION.get();
+    }
+
+    /**
+     * Signale que les tables pré-agrégées ont changé, après la validation de la transaction
+     */
+    static void ventesModifiees() {
+        VERSION.incrementAndGet();
+    }
+
+    /**
+     * Ajoute (ou retire) les ventes d'une commande aux tables pré-agrégées
+     * A appeler dans la transaction qui crée ou annule la commande, après l'écriture de ses lignes :
+     * les cumuls sont calculés par la base à partir des lignes de la commande (une requête par table)
+     * @param connection La connexion de la transaction en cours
+     * @param commandeId L'identifiant de la commande
+     * @param signe 1 pour une commande créée, -1 pour une commande annulée
+     * @throws SQLException Si une erreur SQL se produit
+     */
+    void cumulerCommande(Connection connection, int commandeId, int signe) throws SQLException {
+        cumulerCommandes(connection, Collections.singletonList(commandeId), signe);
+    }
+
+    /**
+     * Ajoute (ou retire) les ventes de plusieurs commandes aux tables pré-agrégées,
+     * en un lot de requêtes par table
+     * @param connection La connexion de la transaction en cours
+     * @param commandeIds Les identifiants des commandes, par ordre croissant
+     * @param signe 1 pour des commandes créées, -1 pour des commandes annulées
+     * @throws SQLException Si une erreur SQL se produit
+     */
+    void cumulerCommandes(Connection connection, List<Integer> commandeIds, int signe) throws SQLException {
+        if (commandeIds.isEmpty()) {
+            return;
+        }
+
+        // Les lignes sont insérées dans l'ordre de la clé primaire : deux commandes simultanées
+        // verrouillent les mêmes cumuls dans le même ordre et ne peuvent pas s'interbloquer
+        String parJour = "INSERT INTO ventes_jour_article_marque (jour, article_marque_id, quantite, montant) " +
+                "SELECT * FROM (" +
+                "SELECT DATE(c.date_commande) AS jour, lc.article_marque_id, " +
+                "SUM(lc.quantite) * ? AS quantite, SUM(lc.prix_total) * ? AS montant " +
+                "FROM ligne_commande lc JOIN commande c ON c.id = lc.commande_id " +
+                "WHERE lc.commande_id = ? " +
+                "GROUP BY DATE(c.date_commande), lc.article_marque_id) AS v " +
+                "ORDER BY v.jour, v.article_marque_id " +
+                "ON DUPLICATE KEY UPDATE quantite = ventes_jour_article_marque.quantite + v.quantite, " +
+                "montant = ventes_jour_article_marque.montant + v.montant";
+
+        String parMois = "INSERT INTO ventes_mois_marque (mois, marque_id, quantite, montant) " +
+                "SELECT * FROM (" +
+                "SELECT DATE_FORMAT(c.date_commande, '%Y-%m-01') AS mois, am.marque_id, " +
+                "SUM(lc.quantite) * ? AS quantite, SUM(lc.prix_total) * ? AS montant " +
+                "FROM ligne_commande lc JOIN commande c ON c.id = lc.commande_id " +
+                "JOIN article_marque am ON am.id = lc.article_marque_id " +
+                "WHERE lc.commande_id = ? " +
+                "GROUP BY DATE_FORMAT(c.date_commande, '%Y-%m-01'), am.marque_id) AS v " +
+                "ORDER BY v.mois, v.marque_id " +
+                "ON DUPLICATE KEY UPDATE quantite = ventes_mois_marque.quantite + v.quantite, " +
+                "montant = ventes_mois_marque.montant + v.montant";
+
+        for (String query : new String[] {parJour, parMois}) {
+            try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+                for (Integer commandeId : commandeIds) {
+                    pstmt.setInt(1, signe);
+                    pstmt.setInt(2, signe);
+                    pstmt.setInt(3, commandeId);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+        }
+    }
+
+    /**
+     * Exécute une requête d'agrégation (libellé, total) dans le temps imparti
+     * @param limit Valeur du paramètre LIMIT, ou -1 si la requête n'en a pas
+     */
+    private Map<String, Double> agreger(String query, java.sql.Date debut, java.sql.Date fin, int limit,
+                                        String description) {
+        Map<String, Double> resultat = new LinkedHashMap<>();
+
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setQueryTimeout(timeoutSeconds);
+
+            int index = 1;
+            if (debut != null) {
+                pstmt.setDate(index++, debut);
+            }
+            if (fin != null) {
+                pstmt.setDate(index++, fin);
+            }
+            if (limit >= 0) {
+                pstmt.setInt(index, limit);
+            }
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    // Deux articles homonymes sont additionnés sous le même libellé
+                    resultat.merge(rs.getString(1), rs.getDouble(2), Double::sum);
+                }
+            }
+        } catch (SQLTimeoutException e) {
+            System.err.println("Délai dépassé lors du calcul " + description + " (" + timeoutSeconds + " s) : " + e.getMessage());
+        } catch (SQLException e) {
+            System.err.println("Erreur lors du calcul " + description + " : " + e.getMessage());
+        }
+
+        return resultat;
+    }
+
+    /**
+     * Condition sur la colonne de date ; une borne absente n'ajoute pas de paramètre
+     * (la requête reste ainsi utilisable avec la clé primaire, qui commence par la date)
+     */
+    private static String conditionPeriode(String colonne, Date debut, Date fin) {
+        StringBuilder condition = new StringBuilder();
+        if (debut != null) {
+            condition.append(" AND ").append(colonne).append(" >= ?");
+        }
+        if (fin != null) {
+            condition.append(" AND ").append(colonne).append(" < ?");
+        }
+        return condition.toString();
+    }
+
+    /**
+     * Premier jour du mois contenant la date
+     */
+    private static java.sql.Date debutDeMois(Date date) {
+        return debutDeMois(date, false);
+    }
+
+    /**
+     * Premier jour du mois de la date ; arrondi au mois suivant pour une borne de fin qui n'est pas
+     * déjà un début de mois, afin que ce mois entamé soit compris dans la période
+     */
+    private static java.sql.Date debutDeMois(Date date, boolean arrondiSuperieur) {
+        if (date == null) {
+            return null;
+        }
+        LocalDateTime dateHeure = LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+        LocalDate mois = dateHeure.toLocalDate().withDayOfMonth(1);
+        if (arrondiSuperieur && dateHeure.isAfter(mois.atStartOfDay())) {
+            mois = mois.plusMonths(1);
+        }
+        return java.sql.Date.valueOf(mois);
+    }
+
+    /**
+     * Jour de la date ; arrondi au jour suivant pour une borne de fin qui n'est pas déjà minuit
+     */
+    private static java.sql.Date debutDeJour(Date date, boolean arrondiSuperieur) {
+        if (date == null) {
+            return null;
+        }
+        LocalDateTime dateHeure = LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+        LocalDate jour = dateHeure.toLocalDate();
+        if (arrondiSuperieur && dateHeure.isAfter(jour.atStartOfDay())) {
+            jour = jour.plusDays(1);
+        }
+        return java.sql.Date.valueOf(jour);
+    }
+
+    /**
+     * Ajoute les mois sans vente entre le premier et le dernier mois, pour une courbe continue
+     */
+    private static Map<String, Double> completerMois(Map<String, Double> parMois) {
+        if (parMois.size() < 2) {
+            return parMois;
+        }
+
+        List<String> mois = new ArrayList<>(parMois.keySet());
+        YearMonth courant = YearMonth.parse(mois.get(0));
+        YearMonth dernier = YearMonth.parse(mois.get(mois.size() - 1));
+
+        Map<String, Double> resultat = new LinkedHashMap<>();
+        while (!courant.isAfter(dernier)) {
+            String cle = courant.toString();
+            resultat.put(cle, parMois.getOrDefault(cle, 0.0));
+            courant = courant.plusMonths(1);
+        }
+        return resultat;
+    }
+
+    /**
+     * Ajoute les jours sans vente entre le premier et le dernier jour, pour une courbe continue
+     */
+    private static Map<String, Double> completerJours(Map<String, Double> parJour) {
+        if (parJour.size() < 2) {
+            return parJour;
+        }
+
+        List<String> jours = new ArrayList<>(parJour.keySet());
+        LocalDate courant = LocalDate.parse(jours.get(0));
+        LocalDate dernier = LocalDate.parse(jours.get(jours.size() - 1));
+
+        Map<String, Double> resultat = new LinkedHashMap<>();
+        while (!courant.isAfter(dernier)) {
+            String cle = courant.toString();
+            resultat.put(cle, parJour.getOrDefault(cle, 0.0));
+            courant = courant.plusDays(1);
+        }
+        return resultat;
+    }
+}
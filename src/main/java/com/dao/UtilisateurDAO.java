@@ -11,18 +11,13 @@ import java.util.List;
  * Classe DAO pour l'entité Utilisateur
  */
 public class UtilisateurDAO implements GenericDAO<Utilisateur> {
-    private Connection connection;
-
-    public UtilisateurDAO() {
-        this.connection = DatabaseConnection.getInstance().getConnection();
-    }
-
     @Override
     public Utilisateur findById(int id) {
         Utilisateur utilisateur = null;
         String query = "SELECT * FROM utilisateur WHERE id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setInt(1, id);
 
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -42,7 +37,8 @@ public class UtilisateurDAO implements GenericDAO<Utilisateur> {
         List<Utilisateur> utilisateurs = new ArrayList<>();
         String query = "SELECT * FROM utilisateur";
 
-        try (Statement stmt = connection.createStatement();
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(query)) {
 
             while (rs.next()) {
@@ -58,6 +54,23 @@ public class UtilisateurDAO implements GenericDAO<Utilisateur> {
 
     @Override
     public boolean create(Utilisateur utilisateur) {
+        try (Connection connection = DatabaseConnection.getInstance().getConnection()) {
+            return create(connection, utilisateur);
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la création de l'utilisateur : " + e.getMessage());
+        }
+
+        return false;
+    }
+
+    /**
+     * Crée un utilisateur sur une connexion donnée (pour participer à une transaction)
+     * @param connection La connexion à utiliser
+     * @param utilisateur L'utilisateur à créer
+     * @return true si l'opération a réussi, false sinon
+     * @throws SQLException Si une erreur SQL se produit
+     */
+    boolean create(Connection connection, Utilisateur utilisateur) throws SQLException {
         String query = "INSERT INTO utilisateur (email, mot_de_passe, type, nom, prenom, adresse, telephone, date_inscription) " +
                 "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
 
@@ -81,8 +94,6 @@ public class UtilisateurDAO implements GenericDAO<Utilisateur> {
                 }
                 return true;
             }
-        } catch (SQLException e) {
-            System.err.println("Erreur lors de la création de l'utilisateur : " + e.getMessage());
         }
 
         return false;
@@ -93,7 +104,8 @@ public class UtilisateurDAO implements GenericDAO<Utilisateur> {
         String query = "UPDATE utilisateur SET email = ?, mot_de_passe = ?, type = ?, nom = ?, " +
                 "prenom = ?, adresse = ?, telephone = ?, date_inscription = ? WHERE id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setString(1, utilisateur.getEmail());
             pstmt.setString(2, utilisateur.getMotDePasse());
             pstmt.setString(3, utilisateur.getType());
@@ -116,7 +128,8 @@ public class UtilisateurDAO implements GenericDAO<Utilisateur> {
     public boolean delete(int id) {
         String query = "DELETE FROM utilisateur WHERE id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setInt(1, id);
 
             return pstmt.executeUpdate() > 0;
@@ -136,7 +149,8 @@ public class UtilisateurDAO implements GenericDAO<Utilisateur> {
         Utilisateur utilisateur = null;
         String query = "SELECT * FROM utilisateur WHERE email = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setString(1, email);
 
             try (ResultSet rs = pstmt.executeQuery()) {
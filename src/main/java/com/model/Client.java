@@ -8,6 +8,9 @@ public class Client {
     private int utilisateurId;
     private String statut; // "nouveau" ou "ancien"
 
+    // Objet de relation
+    private Utilisateur utilisateur;
+
     /**
      * Constructeur par défaut
      */
@@ -52,6 +55,14 @@ public class Client {
         this.statut = statut;
     }
 
+    public Utilisateur getUtilisateur() {
+        return utilisateur;
+    }
+
+    public void setUtilisateur(Utilisateur utilisateur) {
+        this.utilisateur = utilisateur;
+    }
+
     @Override
     public String toString() {
         return "Client #" + id + " (" + statut + ")";
@@ -0,0 +1,112 @@
+package main.java.com.util;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Écriture d'un fichier CSV ligne par ligne, au travers d'un tampon de grande taille
+ * Seule la ligne en cours transite en mémoire : un export de plusieurs millions de lignes
+ * ne consomme pas plus qu'un export de quelques lignes
+ */
+public class CsvWriter implements Closeable, Flushable {
+    // Taille du tampon d'écriture
+    private static final int TAILLE_TAMPON = 1 << 16;
+
+    private static final char SEPARATEUR = ',';
+    private static final String FIN_LIGNE = "\r\n";
+
+    private final Writer writer;
+    private boolean debutLigne = true;
+
+    /**
+     * Ouvre (ou remplace) un fichier CSV encodé en UTF-8
+     * @param path Le fichier à écrire
+     * @throws IOException Si le fichier ne peut pas être ouvert
+     */
+    public CsvWriter(Path path) throws IOException {
+        this.writer = new BufferedWriter(
+                new OutputStreamWriter(Files.newOutputStream(path), StandardCharsets.UTF_8), TAILLE_TAMPON);
+    }
+
+    /**
+     * Ajoute un champ à la ligne en cours
+     * Le champ est entouré de guillemets s'il contient un séparateur, un guillemet ou un saut de ligne
+     * @param valeur La valeur du champ (null donne un champ vide)
+     * @return Ce writer, pour enchaîner les champs
+     * @throws IOException Si l'écriture échoue
+     */
+    public CsvWriter champ(Object valeur) throws IOException {
+        if (!debutLigne) {
+            writer.write(SEPARATEUR);
+        }
+        debutLigne = false;
+
+        if (valeur == null) {
+            return this;
+        }
+        String texte = valeur.toString();
+        if (!aEchapper(texte)) {
+            writer.write(texte);
+            return this;
+        }
+
+        writer.write('"');
+        for (int i = 0; i < texte.length(); i++) {
+            char c = texte.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+        return this;
+    }
+
+    /**
+     * Termine la ligne en cours
+     * @throws IOException Si l'écriture échoue
+     */
+    public void finLigne() throws IOException {
+        writer.write(FIN_LIGNE);
+        debutLigne = true;
+    }
+
+    /**
+     * Écrit une ligne complète
+     * @param valeurs Les champs de la ligne
+     * @throws IOException Si l'écriture échoue
+     */
+    public void ligne(Object... valeurs) throws IOException {
+        for (Object valeur : valeurs) {
+            champ(valeur);
+        }
+        finLigne();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private static boolean aEchapper(String texte) {
+        for (int i = 0; i < texte.length(); i++) {
+            char c = texte.charAt(i);
+            if (c == SEPARATEUR || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,210 @@
+package main.java.com.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Arbre d'intervalles fermés [debut, fin] (arbre AVL ordonné par début, augmenté de la plus grande fin
+ * de chaque sous-arbre)
+ * Ajout et retrait en O(log n) ; la recherche des intervalles contenant un instant ne visite que
+ * les sous-arbres qui peuvent en contenir, en O(log n + k) pour k résultats en pratique
+ * Non synchronisé : l'appelant protège les accès concurrents
+ * @param <T> Type des valeurs associées aux intervalles
+ */
+public class IntervalTree<T> {
+    private Noeud<T> racine;
+    private int taille;
+
+    /**
+     * Ajoute un intervalle
+     * @param debut Début de l'intervalle (inclus)
+     * @param fin Fin de l'intervalle (incluse)
+     * @param cle Identifiant départageant les intervalles de même début (unique par début)
+     * @param valeur La valeur associée ; remplace celle d'un intervalle de même début et même clé
+     */
+    public void add(long debut, long fin, long cle, T valeur) {
+        if (fin < debut) {
+            throw new IllegalArgumentException("Intervalle invalide : [" + debut + ", " + fin + "]");
+        }
+        racine = inserer(racine, debut, fin, cle, valeur);
+    }
+
+    /**
+     * Retire un intervalle
+     * @param debut Début de l'intervalle, tel qu'il a été ajouté
+     * @param cle Identifiant de l'intervalle, tel qu'il a été ajouté
+     * @return true si l'intervalle était présent
+     */
+    public boolean remove(long debut, long cle) {
+        int avant = taille;
+        racine = retirer(racine, debut, cle);
+        return taille < avant;
+    }
+
+    /**
+     * Recherche les intervalles contenant un instant
+     * @param instant L'instant recherché
+     * @return Les valeurs des intervalles tels que debut <= instant <= fin, par début croissant
+     */
+    public List<T> containing(long instant) {
+        List<T> resultat = new ArrayList<>();
+        chercher(racine, instant, resultat);
+        return resultat;
+    }
+
+    /**
+     * @return Le nombre d'intervalles
+     */
+    public int size() {
+        return taille;
+    }
+
+    /**
+     * Retire tous les intervalles
+     */
+    public void clear() {
+        racine = null;
+        taille = 0;
+    }
+
+    private static <T> void chercher(Noeud<T> noeud, long instant, List<T> resultat) {
+        // Aucun intervalle du sous-arbre ne va jusqu'à l'instant
+        if (noeud == null || noeud.finMax < instant) {
+            return;
+        }
+        chercher(noeud.gauche, instant, resultat);
+
+        // Ce nœud et tout son sous-arbre droit commencent après l'instant
+        if (noeud.debut > instant) {
+            return;
+        }
+        if (noeud.fin >= instant) {
+            resultat.add(noeud.valeur);
+        }
+        chercher(noeud.droite, instant, resultat);
+    }
+
+    private Noeud<T> inserer(Noeud<T> noeud, long debut, long fin, long cle, T valeur) {
+        if (noeud == null) {
+            taille++;
+            return new Noeud<>(debut, fin, cle, valeur);
+        }
+
+        int ordre = comparer(debut, cle, noeud);
+        if (ordre < 0) {
+            noeud.gauche = inserer(noeud.gauche, debut, fin, cle, valeur);
+        } else if (ordre > 0) {
+            noeud.droite = inserer(noeud.droite, debut, fin, cle, valeur);
+        } else {
+            noeud.fin = fin;
+            noeud.valeur = valeur;
+        }
+        return equilibrer(noeud);
+    }
+
+    private Noeud<T> retirer(Noeud<T> noeud, long debut, long cle) {
+        if (noeud == null) {
+            return null;
+        }
+
+        int ordre = comparer(debut, cle, noeud);
+        if (ordre < 0) {
+            noeud.gauche = retirer(noeud.gauche, debut, cle);
+        } else if (ordre > 0) {
+            noeud.droite = retirer(noeud.droite, debut, cle);
+        } else {
+            if (noeud.gauche == null || noeud.droite == null) {
+                taille--;
+                return noeud.gauche != null ? noeud.gauche : noeud.droite;
+            }
+
+            // Remplacé par son successeur, retiré du sous-arbre droit
+            Noeud<T> successeur = noeud.droite;
+            while (successeur.gauche != null) {
+                successeur = successeur.gauche;
+            }
+            noeud.debut = successeur.debut;
+            noeud.fin = successeur.fin;
+            noeud.cle = successeur.cle;
+            noeud.valeur = successeur.valeur;
+            noeud.droite = retirer(noeud.droite, successeur.debut, successeur.cle);
+        }
+        return equilibrer(noeud);
+    }
+
+    private static int comparer(long debut, long cle, Noeud<?> noeud) {
+        int ordre = Long.compare(debut, noeud.debut);
+        return ordre != 0 ? ordre : Long.compare(cle, noeud.cle);
+    }
+
+    private static <T> Noeud<T> equilibrer(Noeud<T> noeud) {
+        mettreAJour(noeud);
+        int facteur = hauteur(noeud.gauche) - hauteur(noeud.droite);
+        if (facteur > 1) {
+            if (hauteur(noeud.gauche.gauche) < hauteur(noeud.gauche.droite)) {
+                noeud.gauche = rotationGauche(noeud.gauche);
+            }
+            return rotationDroite(noeud);
+        }
+        if (facteur < -1) {
+            if (hauteur(noeud.droite.droite) < hauteur(noeud.droite.gauche)) {
+                noeud.droite = rotationDroite(noeud.droite);
+            }
+            return rotationGauche(noeud);
+        }
+        return noeud;
+    }
+
+    private static <T> Noeud<T> rotationDroite(Noeud<T> noeud) {
+        Noeud<T> pivot = noeud.gauche;
+        noeud.gauche = pivot.droite;
+        pivot.droite = noeud;
+        mettreAJour(noeud);
+        mettreAJour(pivot);
+        return pivot;
+    }
+
+    private static <T> Noeud<T> rotationGauche(Noeud<T> noeud) {
+        Noeud<T> pivot = noeud.droite;
+        noeud.droite = pivot.gauche;
+        pivot.gauche = noeud;
+        mettreAJour(noeud);
+        mettreAJour(pivot);
+        return pivot;
+    }
+
+    private static void mettreAJour(Noeud<?> noeud) {
+        noeud.hauteur = 1 + Math.max(hauteur(noeud.gauche), hauteur(noeud.droite));
+        long finMax = noeud.fin;
+        if (noeud.gauche != null) {
+            finMax = Math.max(finMax, noeud.gauche.finMax);
+        }
+        if (noeud.droite != null) {
+            finMax = Math.max(finMax, noeud.droite.finMax);
+        }
+        noeud.finMax = finMax;
+    }
+
+    private static int hauteur(Noeud<?> noeud) {
+        return noeud != null ? noeud.hauteur : 0;
+    }
+
+    private static final class Noeud<T> {
+        private long debut;
+        private long fin;
+        private long cle;
+        private T valeur;
+        private long finMax;
+        private int hauteur = 1;
+        private Noeud<T> gauche;
+        private Noeud<T> droite;
+
+        private Noeud(long debut, long fin, long cle, T valeur) {
+            this.debut = debut;
+            this.fin = fin;
+            this.cle = cle;
+            this.valeur = valeur;
+            this.finMax = fin;
+        }
+    }
+}
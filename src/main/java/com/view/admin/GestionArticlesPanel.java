@@ -1,12 +1,15 @@
 package main.java.com.view.admin;
 
 import main.java.com.controller.ArticleController;
+import main.java.com.dao.ArticleSort;
 import main.java.com.dao.DAOFactory;
 import main.java.com.dao.MarqueDAO;
 import main.java.com.model.Article;
 import main.java.com.model.ArticleMarque;
 import main.java.com.model.Marque;
+import main.java.com.view.common.BackgroundTasks;
 import main.java.com.view.common.MainFrame;
+import main.java.com.view.common.ScrollPaging;
 
 
 import javax.swing.*;
@@ -17,7 +20,9 @@ import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.text.NumberFormat;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Future;
 
 
 
@@ -25,8 +30,9 @@ import java.util.List;
  * Panel pour la gestion des articles
  */
 public class GestionArticlesPanel extends JPanel {
+    // Nombre d'articles lus par requête
+    private static final int TAILLE_PAGE = 200;
 
-    
     private MainFrame mainFrame;
     private ArticleController articleController;
     private MarqueDAO marqueDAO;
@@ -40,6 +46,13 @@ public class GestionArticlesPanel extends JPanel {
     private JTextField searchField;
     private JButton searchButton;
 
+    // État de la pagination
+    private Article dernierArticle;
+    private boolean pagesRestantes;
+
+    // Lecture en cours de la liste (page ou recherche)
+    private Future<?> chargementArticles;
+
     /**
      * Constructeur du panel de gestion des articles
      * @param mainFrame La fenêtre principale
@@ -110,6 +123,7 @@ public class GestionArticlesPanel extends JPanel {
         // Panel de table avec scrolling
         JScrollPane scrollPane = new JScrollPane(articleTable);
         scrollPane.setPreferredSize(new Dimension(800, 400));
+        ScrollPaging.install(scrollPane, this::chargerPageSuivante);
 
         // Panel de boutons
         JPanel buttonPanel = new JPanel();
@@ -134,8 +148,11 @@ public class GestionArticlesPanel extends JPanel {
             public void actionPerformed(ActionEvent e) {
                 String searchTerm = searchField.getText().trim();
                 if (!searchTerm.isEmpty()) {
-                    List<Article> articles = articleController.searchArticlesByName(searchTerm);
-                    updateArticleList(articles);
+                    annulerChargementArticles();
+                    pagesRestantes = false;
+                    chargementArticles = BackgroundTasks.run(GestionArticlesPanel.this,
+                            () -> articleController.searchArticlesByName(searchTerm),
+                            articles -> updateArticleList(articles));
                 }
             }
         });
@@ -162,9 +179,10 @@ public class GestionArticlesPanel extends JPanel {
             public void actionPerformed(ActionEvent e) {
                 int selectedRow = articleTable.getSelectedRow();
                 if (selectedRow >= 0) {
-                    Article article = articleController.getArticleById(
-                            (Integer) articleTable.getValueAt(selectedRow, 0));
-                    showArticleDialog(article);
+                    int articleId = (Integer) articleTable.getValueAt(selectedRow, 0);
+                    BackgroundTasks.run(GestionArticlesPanel.this,
+                            () -> articleController.getArticleById(articleId),
+                            article -> showArticleDialog(article));
                 } else {
                     JOptionPane.showMessageDialog(GestionArticlesPanel.this,
                             "Veuillez sélectionner un article à modifier.",
@@ -187,14 +205,25 @@ public class GestionArticlesPanel extends JPanel {
                             JOptionPane.YES_NO_OPTION);
 
                     if (response == JOptionPane.YES_OPTION) {
-                        if (articleController.deleteArticle(articleId)) {
-                            loadData();
-                        } else {
+                        // Écriture sans propriétaire : elle va à son terme même si l'on quitte le panel
+                        deleteButton.setEnabled(false);
+                        BackgroundTasks.run(null, () -> articleController.deleteArticle(articleId), success -> {
+                            deleteButton.setEnabled(true);
+                            if (success) {
+                                loadData();
+                            } else {
+                                JOptionPane.showMessageDialog(GestionArticlesPanel.this,
+                                        "Erreur lors de la suppression de l'article.",
+                                        "Erreur",
+                                        JOptionPane.ERROR_MESSAGE);
+                            }
+                        }, ex -> {
+                            deleteButton.setEnabled(true);
                             JOptionPane.showMessageDialog(GestionArticlesPanel.this,
-                                    "Erreur lors de la suppression de l'article.",
+                                    "Erreur lors de la suppression de l'article : " + ex.getMessage(),
                                     "Erreur",
                                     JOptionPane.ERROR_MESSAGE);
-                        }
+                        });
                     }
                 } else {
                     JOptionPane.showMessageDialog(GestionArticlesPanel.this,
@@ -207,20 +236,50 @@ public class GestionArticlesPanel extends JPanel {
     }
 
     /**
-     * Charge les données
+     * Charge les données (première page, les suivantes au fil du défilement)
      */
     private void loadData() {
-        List<Article> articles = articleController.getAllArticles();
-        updateArticleList(articles);
+        annulerChargementArticles();
+        dernierArticle = null;
+        pagesRestantes = true;
+        articleModel.setArticles(new ArrayList<>());
+        chargerPageSuivante();
+    }
+
+    /**
+     * Ajoute la page suivante d'articles à la table
+     */
+    private void chargerPageSuivante() {
+        if (BackgroundTasks.isPending(chargementArticles) || !pagesRestantes) {
+            return;
+        }
+
+        Article apres = dernierArticle;
+        chargementArticles = BackgroundTasks.run(this,
+                () -> articleController.getArticlesPage(apres, TAILLE_PAGE, ArticleSort.ID),
+                page -> {
+                    if (!page.isEmpty()) {
+                        dernierArticle = page.get(page.size() - 1);
+                        articleModel.addArticles(page);
+                    }
+                    pagesRestantes = page.size() == TAILLE_PAGE;
+                });
+    }
+
+    private void annulerChargementArticles() {
+        if (chargementArticles != null) {
+            chargementArticles.cancel(false);
+            chargementArticles = null;
+        }
     }
 
     /**
-     * Met à jour la liste des articles
+     * Met à jour la liste des articles (résultat d'une recherche, sans pagination)
      * @param articles Liste des articles à afficher
      */
     private void updateArticleList(List<Article> articles) {
+        pagesRestantes = false;
         articleModel.setArticles(articles);
-        articleModel.fireTableDataChanged();
     }
 
     /**
@@ -380,22 +439,28 @@ public class GestionArticlesPanel extends JPanel {
                     articleToSave.setStock((Integer) stockSpinner.getValue());
                     articleToSave.setImageUrl(imageUrlField.getText());
 
-                    boolean success;
-                    if (isEditing) {
-                        success = articleController.updateArticle(articleToSave);
-                    } else {
-                        success = articleController.addArticle(articleToSave);
-                    }
-
-                    if (success) {
-                        dialog.dispose();
-                        loadData();
-                    } else {
+                    // Enregistrement en arrière-plan, la boîte de dialogue reste ouverte jusqu'au résultat
+                    okButton.setEnabled(false);
+                    BackgroundTasks.run(null, () -> isEditing ?
+                            articleController.updateArticle(articleToSave) :
+                            articleController.addArticle(articleToSave), success -> {
+                        okButton.setEnabled(true);
+                        if (success) {
+                            dialog.dispose();
+                            loadData();
+                        } else {
+                            JOptionPane.showMessageDialog(dialog,
+                                    "Erreur lors de l'enregistrement de l'article.",
+                                    "Erreur",
+                                    JOptionPane.ERROR_MESSAGE);
+                        }
+                    }, ex -> {
+                        okButton.setEnabled(true);
                         JOptionPane.showMessageDialog(dialog,
-                                "Erreur lors de l'enregistrement de l'article.",
+                                "Erreur lors de l'enregistrement de l'article : " + ex.getMessage(),
                                 "Erreur",
                                 JOptionPane.ERROR_MESSAGE);
-                    }
+                    });
                 }
             }
         });
@@ -467,6 +532,13 @@ public class GestionArticlesPanel extends JPanel {
 
         public void setArticles(List<Article> articles) {
             this.articles = articles;
+            fireTableDataChanged();
+        }
+
+        public void addArticles(List<Article> page) {
+            int premiereLigne = articles.size();
+            articles.addAll(page);
+            fireTableRowsInserted(premiereLigne, articles.size() - 1);
         }
 
         @Override
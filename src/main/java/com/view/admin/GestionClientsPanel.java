@@ -3,7 +3,9 @@ package main.java.com.view.admin;
 import main.java.com.controller.ClientController;
 import main.java.com.model.Client;
 import main.java.com.model.Utilisateur;
+import main.java.com.view.common.BackgroundTasks;
 import main.java.com.view.common.MainFrame;
+import main.java.com.view.common.ScrollPaging;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -15,11 +17,15 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.Future;
 
 /**
  * Panel pour la gestion des clients
  */
 public class GestionClientsPanel extends JPanel {
+    // Nombre de clients lus par requête
+    private static final int TAILLE_PAGE = 200;
+
     private MainFrame mainFrame;
     private ClientController clientController;
 
@@ -31,6 +37,15 @@ public class GestionClientsPanel extends JPanel {
     private JButton searchButton;
     private JTextArea detailsArea;
 
+    // État de la pagination
+    private String rechercheCourante;
+    private int dernierClientId;
+    private boolean pagesRestantes;
+    private Future<?> chargementClients;
+
+    // Lecture en cours de l'utilisateur du client sélectionné
+    private Future<?> chargementDetails;
+
     /**
      * Constructeur du panel de gestion des clients
      * @param mainFrame La fenêtre principale
@@ -92,6 +107,7 @@ public class GestionClientsPanel extends JPanel {
         // Table des clients
         JScrollPane tableScrollPane = new JScrollPane(clientTable);
         tableScrollPane.setBorder(BorderFactory.createTitledBorder("Liste des clients"));
+        ScrollPaging.install(tableScrollPane, this::chargerPageSuivante);
         centerPanel.add(tableScrollPane, BorderLayout.CENTER);
 
         // Zone de détails
@@ -138,14 +154,33 @@ public class GestionClientsPanel extends JPanel {
                             JOptionPane.YES_NO_OPTION);
 
                     if (response == JOptionPane.YES_OPTION) {
-                        if (clientController.updateClientStatus(client.getId(), newStatus)) {
-                            loadData();
-                        } else {
+                        // Écriture sans propriétaire : elle va à son terme même si l'on quitte le panel
+                        changeStatusButton.setEnabled(false);
+                        BackgroundTasks.run(null, () -> clientController.updateClientStatus(client.getId(), newStatus), success -> {
+                            changeStatusButton.setEnabled(true);
+                            if (success) {
+                                // Mise à jour de la ligne seule, sans relire toutes les pages
+                                client.setStatut(newStatus);
+                                int row = clientModel.indexOf(client);
+                                if (row >= 0) {
+                                    clientModel.fireTableRowsUpdated(row, row);
+                                    if (clientTable.getSelectedRow() == row) {
+                                        displayClientDetails(client);
+                                    }
+                                }
+                            } else {
+                                JOptionPane.showMessageDialog(GestionClientsPanel.this,
+                                        "Erreur lors de la mise à jour du statut.",
+                                        "Erreur",
+                                        JOptionPane.ERROR_MESSAGE);
+                            }
+                        }, ex -> {
+                            changeStatusButton.setEnabled(true);
                             JOptionPane.showMessageDialog(GestionClientsPanel.this,
-                                    "Erreur lors de la mise à jour du statut.",
+                                    "Erreur lors de la mise à jour du statut : " + ex.getMessage(),
                                     "Erreur",
                                     JOptionPane.ERROR_MESSAGE);
-                        }
+                        });
                     }
                 } else {
                     JOptionPane.showMessageDialog(GestionClientsPanel.this,
@@ -156,6 +191,14 @@ public class GestionClientsPanel extends JPanel {
             }
         });
 
+        // Recherche (bouton ou touche Entrée)
+        ActionListener searchListener = e -> {
+            rechercheCourante = searchField.getText().trim();
+            loadData();
+        };
+        searchButton.addActionListener(searchListener);
+        searchField.addActionListener(searchListener);
+
         // Sélection d'un client
         clientTable.getSelectionModel().addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting()) {
@@ -169,15 +212,43 @@ public class GestionClientsPanel extends JPanel {
     }
 
     /**
-     * Charge les données
+     * Charge les données (première page, selon la recherche courante)
      */
     private void loadData() {
-        List<Client> clients = clientController.getAllClients();
-        clientModel.setClients(clients);
-        clientModel.fireTableDataChanged();
+        if (chargementClients != null) {
+            chargementClients.cancel(false);
+            chargementClients = null;
+        }
+        dernierClientId = 0;
+        pagesRestantes = true;
+        clientModel.setClients(new ArrayList<>());
 
         // Vide la zone de détails
         detailsArea.setText("");
+
+        chargerPageSuivante();
+    }
+
+    /**
+     * Charge la page suivante de clients et l'ajoute à la table
+     * Une seule requête par page : les utilisateurs sont lus par jointure
+     */
+    private void chargerPageSuivante() {
+        if (BackgroundTasks.isPending(chargementClients) || !pagesRestantes) {
+            return;
+        }
+
+        int apresId = dernierClientId;
+        String recherche = rechercheCourante;
+        chargementClients = BackgroundTasks.run(this,
+                () -> clientController.getClientsPage(apresId, TAILLE_PAGE, recherche),
+                page -> {
+                    if (!page.isEmpty()) {
+                        dernierClientId = page.get(page.size() - 1).getId();
+                        clientModel.addClients(page);
+                    }
+                    pagesRestantes = page.size() == TAILLE_PAGE;
+                });
     }
 
     /**
@@ -185,13 +256,32 @@ public class GestionClientsPanel extends JPanel {
      * @param client Le client à afficher
      */
     private void displayClientDetails(Client client) {
+        if (chargementDetails != null) {
+            chargementDetails.cancel(false);
+            chargementDetails = null;
+        }
         if (client == null) {
             detailsArea.setText("");
             return;
         }
 
-        // Récupère les informations de l'utilisateur associé
-        Utilisateur utilisateur = clientController.getUtilisateurByClientId(client.getId());
+        // Utilisateur déjà chargé avec la page, sinon lu en base en arrière-plan
+        if (client.getUtilisateur() != null) {
+            afficherDetails(client, client.getUtilisateur());
+        } else {
+            detailsArea.setText("Chargement...");
+            chargementDetails = BackgroundTasks.run(this,
+                    () -> clientController.getUtilisateurByClientId(client.getId()),
+                    utilisateur -> afficherDetails(client, utilisateur));
+        }
+    }
+
+    /**
+     * Affiche les détails d'un client et de son utilisateur
+     * @param client Le client à afficher
+     * @param utilisateur L'utilisateur associé (null s'il est introuvable)
+     */
+    private void afficherDetails(Client client, Utilisateur utilisateur) {
         if (utilisateur == null) {
             detailsArea.setText("Impossible de récupérer les informations de l'utilisateur.");
             return;
@@ -207,7 +297,8 @@ public class GestionClientsPanel extends JPanel {
         details.append("Email: ").append(utilisateur.getEmail()).append("\n");
         details.append("Adresse: ").append(utilisateur.getAdresse() != null ? utilisateur.getAdresse() : "Non renseignée").append("\n");
         details.append("Téléphone: ").append(utilisateur.getTelephone() != null ? utilisateur.getTelephone() : "Non renseigné").append("\n");
-        details.append("Date d'inscription: ").append(dateFormat.format(utilisateur.getDateInscription())).append("\n");
+        details.append("Date d'inscription: ").append(utilisateur.getDateInscription() != null ?
+                dateFormat.format(utilisateur.getDateInscription()) : "Non renseignée").append("\n");
 
         detailsArea.setText(details.toString());
     }
@@ -217,23 +308,26 @@ public class GestionClientsPanel extends JPanel {
      */
     private class ClientTableModel extends AbstractTableModel {
         private final String[] columnNames = {"ID", "Nom", "Prénom", "Email", "Téléphone", "Statut", "Date d'inscription"};
+        private final SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy");
         private List<Client> clients;
-        private List<Utilisateur> utilisateurs;
 
         public ClientTableModel() {
             this.clients = new ArrayList<>();
-            this.utilisateurs = new ArrayList<>();
         }
 
         public void setClients(List<Client> clients) {
             this.clients = clients;
-            this.utilisateurs = new ArrayList<>();
+            fireTableDataChanged();
+        }
 
-            // Récupère les informations des utilisateurs associés
-            for (Client client : clients) {
-                Utilisateur utilisateur = clientController.getUtilisateurByClientId(client.getId());
-                utilisateurs.add(utilisateur);
-            }
+        public void addClients(List<Client> page) {
+            int premiereLigne = clients.size();
+            clients.addAll(page);
+            fireTableRowsInserted(premiereLigne, clients.size() - 1);
+        }
+
+        public int indexOf(Client client) {
+            return clients.indexOf(client);
         }
 
         public Client getClientAt(int rowIndex) {
@@ -260,9 +354,9 @@ public class GestionClientsPanel extends JPanel {
 
         @Override
         public Object getValueAt(int rowIndex, int columnIndex) {
-            if (rowIndex >= 0 && rowIndex < clients.size() && rowIndex < utilisateurs.size()) {
+            if (rowIndex >= 0 && rowIndex < clients.size()) {
                 Client client = clients.get(rowIndex);
-                Utilisateur utilisateur = utilisateurs.get(rowIndex);
+                Utilisateur utilisateur = client.getUtilisateur();
 
                 // Si l'utilisateur n'a pas été trouvé
                 if (utilisateur == null) {
@@ -275,8 +369,6 @@ public class GestionClientsPanel extends JPanel {
                     }
                 }
 
-                SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy");
-
                 switch (columnIndex) {
                     case 0: // ID
                         return client.getId();
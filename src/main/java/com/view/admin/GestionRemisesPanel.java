@@ -1,9 +1,9 @@
 package main.java.com.view.admin;
 
 import main.java.com.dao.DAOFactory;
-import main.java.com.model.Article;
-import main.java.com.model.ArticleMarque;
+import main.java.com.dao.RemiseDAO;
 import main.java.com.model.Remise;
+import main.java.com.view.common.BackgroundTasks;
 import main.java.com.view.common.MainFrame;
 
 import javax.swing.*;
@@ -15,6 +15,7 @@ import java.awt.event.ActionListener;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
 
@@ -23,7 +24,7 @@ import java.util.List;
  */
 public class GestionRemisesPanel extends JPanel {
     private MainFrame mainFrame;
-    private List<Remise> remises;
+    private RemiseDAO remiseDAO;
 
     private JTable remiseTable;
     private RemiseTableModel remiseModel;
@@ -38,7 +39,7 @@ public class GestionRemisesPanel extends JPanel {
      */
     public GestionRemisesPanel(MainFrame mainFrame) {
         this.mainFrame = mainFrame;
-        this.remises = new ArrayList<>(); // Remplacer par un appel au DAO dans une implémentation réelle
+        this.remiseDAO = DAOFactory.getRemiseDAO();
 
         initComponents();
         setupLayout();
@@ -97,6 +98,8 @@ public class GestionRemisesPanel extends JPanel {
         refreshButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
+                // Relit la table, au cas où des remises auraient été modifiées ailleurs
+                RemiseDAO.invalidateCache();
                 loadData();
             }
         });
@@ -140,9 +143,25 @@ public class GestionRemisesPanel extends JPanel {
                             JOptionPane.YES_NO_OPTION);
 
                     if (response == JOptionPane.YES_OPTION) {
-                        // Dans une implémentation réelle, supprimer la remise de la base de données
-                        remises.remove(selectedRow);
-                        remiseModel.fireTableDataChanged();
+                        // Écriture sans propriétaire : elle va à son terme même si l'on quitte le panel
+                        deleteButton.setEnabled(false);
+                        BackgroundTasks.run(null, () -> remiseDAO.delete(remise.getId()), success -> {
+                            deleteButton.setEnabled(true);
+                            if (success) {
+                                loadData();
+                            } else {
+                                JOptionPane.showMessageDialog(GestionRemisesPanel.this,
+                                        "Erreur lors de la suppression de la remise.",
+                                        "Erreur",
+                                        JOptionPane.ERROR_MESSAGE);
+                            }
+                        }, ex -> {
+                            deleteButton.setEnabled(true);
+                            JOptionPane.showMessageDialog(GestionRemisesPanel.this,
+                                    "Erreur lors de la suppression de la remise : " + ex.getMessage(),
+                                    "Erreur",
+                                    JOptionPane.ERROR_MESSAGE);
+                        });
                     }
                 } else {
                     JOptionPane.showMessageDialog(GestionRemisesPanel.this,
@@ -158,44 +177,7 @@ public class GestionRemisesPanel extends JPanel {
      * Charge les données
      */
     private void loadData() {
-        // Normalement, charger depuis la base via DAO
-        // Pour le test, on crée des remises fictives
-        remises = new ArrayList<>();
-
-        SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy");
-        try {
-            Remise remise1 = new Remise();
-            remise1.setId(1);
-            remise1.setCode("SUMMER10");
-            remise1.setPourcentage(10.0);
-            remise1.setDateDebut(dateFormat.parse("01/06/2025"));
-            remise1.setDateFin(dateFormat.parse("31/08/2025"));
-            remise1.setQuantiteMin(1);
-            remises.add(remise1);
-
-            Remise remise2 = new Remise();
-            remise2.setId(2);
-            remise2.setCode("BULK20");
-            remise2.setPourcentage(20.0);
-            remise2.setDateDebut(dateFormat.parse("01/01/2025"));
-            remise2.setDateFin(dateFormat.parse("31/12/2025"));
-            remise2.setQuantiteMin(5);
-            remises.add(remise2);
-
-            Remise remise3 = new Remise();
-            remise3.setId(3);
-            remise3.setCode("NEWCLIENT");
-            remise3.setPourcentage(5.0);
-            remise3.setDateDebut(dateFormat.parse("01/01/2025"));
-            remise3.setDateFin(dateFormat.parse("31/12/2025"));
-            remise3.setQuantiteMin(1);
-            remises.add(remise3);
-        } catch (ParseException e) {
-            e.printStackTrace();
-        }
-
-        remiseModel.setRemises(remises);
-        remiseModel.fireTableDataChanged();
+        BackgroundTasks.run(this, () -> remiseDAO.findAll(), remises -> remiseModel.setRemises(remises));
     }
 
     /**
@@ -208,7 +190,7 @@ public class GestionRemisesPanel extends JPanel {
         // Création de la fenêtre de dialogue
         JDialog dialog = new JDialog(SwingUtilities.getWindowAncestor(this),
                 isEditing ? "Modifier une remise" : "Ajouter une remise",
-                true);
+                Dialog.ModalityType.APPLICATION_MODAL);
         dialog.setSize(400, 350);
         dialog.setLocationRelativeTo(this);
 
@@ -226,6 +208,9 @@ public class GestionRemisesPanel extends JPanel {
         dateDebutField.setColumns(15);
         JFormattedTextField dateFinField = new JFormattedTextField(new SimpleDateFormat("dd/MM/yyyy"));
         dateFinField.setColumns(15);
+        // Le texte saisi est gardé tel quel (lu à l'enregistrement) : un champ vidé reste vide
+        dateDebutField.setFocusLostBehavior(JFormattedTextField.PERSIST);
+        dateFinField.setFocusLostBehavior(JFormattedTextField.PERSIST);
         JSpinner quantiteMinSpinner = new JSpinner(new SpinnerNumberModel(1, 1, 100, 1));
 
         // Pré-remplissage des champs si en mode édition
@@ -326,33 +311,49 @@ public class GestionRemisesPanel extends JPanel {
             @Override
             public void actionPerformed(ActionEvent e) {
                 if (validateForm(codeField.getText())) {
+                    Remise remiseToSave = isEditing ? remise : new Remise();
                     try {
                         // Création ou mise à jour de la remise
-                        Remise remiseToSave = isEditing ? remise : new Remise();
                         remiseToSave.setCode(codeField.getText());
                         remiseToSave.setPourcentage(Double.parseDouble(pourcentageField.getText()));
                         remiseToSave.setMontantFixe(Double.parseDouble(montantFixeField.getText()));
 
-                        SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy");
-                        remiseToSave.setDateDebut(dateFormat.parse(dateDebutField.getText()));
-                        remiseToSave.setDateFin(dateFormat.parse(dateFinField.getText()));
+                        // Une date laissée vide ouvre la période de ce côté
+                        remiseToSave.setDateDebut(parseDateOptionnelle(dateDebutField.getText()));
+                        remiseToSave.setDateFin(parseDateOptionnelle(dateFinField.getText()));
 
                         remiseToSave.setQuantiteMin((Integer) quantiteMinSpinner.getValue());
 
-                        if (!isEditing) {
-                            // Générer un ID pour la nouvelle remise (dans une impl. réelle, ce serait fait par la BD)
-                            remiseToSave.setId(remises.size() + 1);
-                            remises.add(remiseToSave);
-                        }
-
-                        remiseModel.fireTableDataChanged();
-                        dialog.dispose();
                     } catch (ParseException | NumberFormatException ex) {
                         JOptionPane.showMessageDialog(dialog,
                                 "Erreur de format dans les champs. Veuillez vérifier les valeurs entrées.",
                                 "Erreur",
                                 JOptionPane.ERROR_MESSAGE);
+                        return;
                     }
+
+                    // Enregistrement en arrière-plan, la boîte de dialogue reste ouverte jusqu'au résultat
+                    okButton.setEnabled(false);
+                    BackgroundTasks.run(null, () -> isEditing ?
+                            remiseDAO.update(remiseToSave) :
+                            remiseDAO.create(remiseToSave), success -> {
+                        okButton.setEnabled(true);
+                        if (success) {
+                            dialog.dispose();
+                            loadData();
+                        } else {
+                            JOptionPane.showMessageDialog(dialog,
+                                    "Erreur lors de l'enregistrement de la remise (code déjà utilisé ?).",
+                                    "Erreur",
+                                    JOptionPane.ERROR_MESSAGE);
+                        }
+                    }, ex -> {
+                        okButton.setEnabled(true);
+                        JOptionPane.showMessageDialog(dialog,
+                                "Erreur lors de l'enregistrement de la remise : " + ex.getMessage(),
+                                "Erreur",
+                                JOptionPane.ERROR_MESSAGE);
+                    });
                 }
             }
         });
@@ -374,6 +375,19 @@ public class GestionRemisesPanel extends JPanel {
         dialog.setVisible(true);
     }
 
+    /**
+     * Lit une date saisie au format jj/mm/aaaa
+     * @param texte Le texte saisi
+     * @return La date, ou null si le champ est vide
+     * @throws ParseException Si le texte n'est pas une date valide
+     */
+    private static Date parseDateOptionnelle(String texte) throws ParseException {
+        if (texte == null || texte.trim().isEmpty()) {
+            return null;
+        }
+        return new SimpleDateFormat("dd/MM/yyyy").parse(texte.trim());
+    }
+
     /**
      * Valide le formulaire de remise
      * @param code Code de la remise
@@ -404,6 +418,7 @@ public class GestionRemisesPanel extends JPanel {
 
         public void setRemises(List<Remise> remises) {
             this.remises = remises;
+            fireTableDataChanged();
         }
 
         public Remise getRemiseAt(int rowIndex) {
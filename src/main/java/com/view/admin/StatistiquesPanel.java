@@ -1,44 +1,58 @@
 package main.java.com.view.admin;
 
-import main.java.com.dao.ArticleDAO;
-import main.java.com.dao.CommandeDAO;
 import main.java.com.dao.DAOFactory;
-import main.java.com.dao.MarqueDAO;
-import main.java.com.model.Article;
-import main.java.com.model.Commande;
-import main.java.com.model.LigneCommande;
-import main.java.com.model.Marque;
+import main.java.com.dao.StatistiquesDAO;
+import main.java.com.view.common.BackgroundTasks;
 import main.java.com.view.reporting.ChartGenerator;
+import org.jfree.chart.JFreeChart;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
 
 /**
  * Panel pour afficher les statistiques de ventes
+ * Les montants sont agrégés par la base de données, sur la période choisie
  */
 public class StatistiquesPanel extends JPanel {
-    private CommandeDAO commandeDAO;
-    private ArticleDAO articleDAO;
-    private MarqueDAO marqueDAO;
+    // Nombre d'articles et de marques détaillés dans les graphiques
+    private static final int MAX_ARTICLES = 10;
+    private static final int MAX_MARQUES = 8;
+
+    // Types de graphiques, pour le cache de ChartGenerator
+    private static final String GRAPHIQUE_MOIS = "statistiques.mois";
+    private static final String GRAPHIQUE_ARTICLES = "statistiques.articles";
+    private static final String GRAPHIQUE_MARQUES = "statistiques.marques";
+
+    private static final String[] PERIODES = {"12 derniers mois", "Année en cours", "Tout l'historique"};
+    private static final DateTimeFormatter FORMAT_MOIS = DateTimeFormatter.ofPattern("MMM yyyy", Locale.FRENCH);
+
+    private StatistiquesDAO statistiquesDAO;
 
     private JTabbedPane tabbedPane;
     private JPanel ventesMensuellesPanel;
     private JPanel ventesParArticlePanel;
     private JPanel ventesParMarquePanel;
+    private JComboBox<String> periodeCombo;
+    private JButton refreshButton;
 
     /**
      * Constructeur du panel de statistiques
      */
     public StatistiquesPanel() {
-        this.commandeDAO = DAOFactory.getCommandeDAO();
-        this.articleDAO = DAOFactory.getArticleDAO();
-        this.marqueDAO = DAOFactory.getMarqueDAO();
+        this.statistiquesDAO = DAOFactory.getStatistiquesDAO();
 
         initComponents();
         setupLayout();
+        setupListeners();
         loadData();
     }
 
@@ -50,6 +64,9 @@ public class StatistiquesPanel extends JPanel {
         ventesMensuellesPanel = new JPanel(new BorderLayout());
         ventesParArticlePanel = new JPanel(new BorderLayout());
         ventesParMarquePanel = new JPanel(new BorderLayout());
+
+        periodeCombo = new JComboBox<>(PERIODES);
+        refreshButton = new JButton("Actualiser");
     }
 
     /**
@@ -59,99 +76,195 @@ public class StatistiquesPanel extends JPanel {
         setLayout(new BorderLayout());
         setBorder(new EmptyBorder(10, 10, 10, 10));
 
+        // Choix de la période
+        JPanel periodePanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        periodePanel.add(new JLabel("Période :"));
+        periodePanel.add(periodeCombo);
+        periodePanel.add(refreshButton);
+
         // Configuration des onglets
         tabbedPane.addTab("Ventes Mensuelles", ventesMensuellesPanel);
         tabbedPane.addTab("Ventes par Article", ventesParArticlePanel);
         tabbedPane.addTab("Ventes par Marque", ventesParMarquePanel);
 
         // Ajout du panneau d'onglets au panel principal
+        add(periodePanel, BorderLayout.NORTH);
         add(tabbedPane, BorderLayout.CENTER);
     }
 
+    /**
+     * Configure les écouteurs d'événements
+     */
+    private void setupListeners() {
+        periodeCombo.addActionListener(e -> loadData());
+        refreshButton.addActionListener(e -> {
+            // Relit les ventes, y compris celles enregistrées depuis un autre poste
+            ChartGenerator.invalider(GRAPHIQUE_MOIS);
+            ChartGenerator.invalider(GRAPHIQUE_ARTICLES);
+            ChartGenerator.invalider(GRAPHIQUE_MARQUES);
+            loadData();
+        });
+    }
+
     /**
      * Charge les données et génère les graphiques
+     * Les trois agrégations sont lancées en parallèle, chacune sur sa propre connexion ;
+     * un graphique déjà calculé pour la même période et les mêmes ventes est réaffiché depuis le cache
      */
     private void loadData() {
+        // Les calculs encore en cours pour une autre période sont abandonnés
+        BackgroundTasks.cancelAll(this);
+
+        Date[] periode = getPeriode();
+        Date debut = periode[0];
+        Date fin = periode[1];
+        long version = StatistiquesDAO.getVersion();
+
+        afficherChargement(ventesMensuellesPanel);
+        afficherChargement(ventesParArticlePanel);
+        afficherChargement(ventesParMarquePanel);
+
         // Génération du graphique de ventes mensuelles
-        generateMonthlySalesChart();
+        afficherGraphique(ventesMensuellesPanel, ChartGenerator.cle(GRAPHIQUE_MOIS, version, debut, fin),
+                () -> statistiquesDAO.ventesParMois(debut, fin), this::generateMonthlySalesChart);
 
         // Génération du graphique de ventes par article
-        generateSalesByArticleChart();
+        afficherGraphique(ventesParArticlePanel, ChartGenerator.cle(GRAPHIQUE_ARTICLES, version, debut, fin),
+                () -> statistiquesDAO.ventesParArticle(debut, fin, MAX_ARTICLES), this::generateSalesByArticleChart);
 
         // Génération du graphique de ventes par marque
-        generateSalesByBrandChart();
+        afficherGraphique(ventesParMarquePanel, ChartGenerator.cle(GRAPHIQUE_MARQUES, version, debut, fin),
+                () -> statistiquesDAO.ventesParMarque(debut, fin, MAX_MARQUES), this::generateSalesByBrandChart);
+    }
+
+    /**
+     * Lit les données et dessine le graphique d'un onglet en arrière-plan
+     */
+    private void afficherGraphique(JPanel panel, String cle, Callable<Map<String, Double>> donnees,
+                                   Function<Map<String, Double>, JFreeChart> graphique) {
+        ChartGenerator.render(this, cle, donnees, graphique, panel.getSize(),
+                (ventes, vue) -> {
+                    if (vue == null) {
+                        afficherAucuneVente(panel);
+                    } else {
+                        afficher(panel, vue);
+                    }
+                },
+                e -> {
+                    System.err.println("Erreur lors du calcul des statistiques : " + e.getMessage());
+                    afficher(panel, new JLabel("Erreur lors du calcul des statistiques.", JLabel.CENTER));
+                });
+    }
+
+    /**
+     * Recalcule les statistiques (appelé à chaque affichage du panel)
+     */
+    public void refreshStatistiques() {
+        loadData();
+    }
+
+    /**
+     * Bornes de la période sélectionnée
+     * @return [début inclus, fin exclue], null pour une borne ouverte
+     */
+    private Date[] getPeriode() {
+        LocalDate aujourdhui = LocalDate.now();
+        LocalDate debut;
+        switch (periodeCombo.getSelectedIndex()) {
+            case 0: // 12 derniers mois, mois courant compris
+                debut = aujourdhui.withDayOfMonth(1).minusMonths(11);
+                break;
+            case 1: // Année en cours
+                debut = aujourdhui.withDayOfYear(1);
+                break;
+            default: // Tout l'historique
+                return new Date[] {null, null};
+        }
+        return new Date[] {toDate(debut), null};
+    }
+
+    private static Date toDate(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
     }
 
     /**
      * Génère le graphique des ventes mensuelles
+     * @param ventes Montant des ventes par mois ("yyyy-MM")
+     * @return Le graphique, null s'il n'y a aucune vente
      */
-    private void generateMonthlySalesChart() {
-        // Dans une implémentation réelle, ces données seraient chargées depuis la base de données
-        // Ici, nous utilisons des données fictives pour l'exemple
-        Map<String, List<Double>> data = new HashMap<>();
-        List<Double> salesValues = Arrays.asList(12500.0, 14200.0, 15800.0, 16900.0, 18300.0, 20100.0);
-        data.put("Ventes", salesValues);
+    private JFreeChart generateMonthlySalesChart(Map<String, Double> ventes) {
+        if (ventes.isEmpty()) {
+            return null;
+        }
 
-        List<String> months = Arrays.asList("Janvier", "Février", "Mars", "Avril", "Mai", "Juin");
+        Map<String, List<Double>> data = new HashMap<>();
+        List<String> months = new ArrayList<>(ventes.size());
+        for (String mois : ventes.keySet()) {
+            months.add(YearMonth.parse(mois).format(FORMAT_MOIS));
+        }
+        data.put("Ventes", new ArrayList<>(ventes.values()));
 
         // Création du graphique
-        JPanel chartPanel = ChartGenerator.createLineChart(
+        return ChartGenerator.buildLineChart(
                 "Évolution des ventes mensuelles",
                 "Mois",
                 "Montant (€)",
                 data,
                 months
         );
-
-        // Ajout du graphique au panel
-        ventesMensuellesPanel.add(chartPanel, BorderLayout.CENTER);
     }
 
     /**
      * Génère le graphique des ventes par article
+     * @param ventes Montant des ventes par article, du plus vendu au moins vendu
+     * @return Le graphique, null s'il n'y a aucune vente
      */
-    private void generateSalesByArticleChart() {
-        // Dans une implémentation réelle, ces données seraient chargées depuis la base de données
-        // Ici, nous utilisons des données fictives pour l'exemple
-        Map<String, Double> data = new HashMap<>();
-        data.put("Briquet", 5200.0);
-        data.put("Stylo", 3800.0);
-        data.put("Cahier", 2900.0);
-        data.put("Clé USB", 7500.0);
-        data.put("Écouteurs", 6300.0);
+    private JFreeChart generateSalesByArticleChart(Map<String, Double> ventes) {
+        if (ventes.isEmpty()) {
+            return null;
+        }
 
         // Création du graphique
-        JPanel chartPanel = ChartGenerator.createBarChart(
-                "Ventes par article",
+        return ChartGenerator.buildBarChart(
+                "Ventes par article (" + MAX_ARTICLES + " meilleures ventes)",
                 "Article",
                 "Montant (€)",
-                data
+                ventes
         );
-
-        // Ajout du graphique au panel
-        ventesParArticlePanel.add(chartPanel, BorderLayout.CENTER);
     }
 
     /**
      * Génère le graphique des ventes par marque
+     * @param ventes Montant des ventes par marque, de la plus vendue à la moins vendue
+     * @return Le graphique, null s'il n'y a aucune vente
      */
-    private void generateSalesByBrandChart() {
-        // Dans une implémentation réelle, ces données seraient chargées depuis la base de données
-        // Ici, nous utilisons des données fictives pour l'exemple
-        Map<String, Double> data = new HashMap<>();
-        data.put("BIC", 8900.0);
-        data.put("Oxford", 5700.0);
-        data.put("Samsung", 12300.0);
-        data.put("Sony", 9800.0);
-        data.put("Anker", 6500.0);
+    private JFreeChart generateSalesByBrandChart(Map<String, Double> ventes) {
+        if (ventes.isEmpty()) {
+            return null;
+        }
 
         // Création du graphique
-        JPanel chartPanel = ChartGenerator.createPieChart(
+        return ChartGenerator.buildPieChart(
                 "Répartition des ventes par marque",
-                data
+                ventes
         );
+    }
+
+    private void afficherChargement(JPanel panel) {
+        afficher(panel, new JLabel("Calcul en cours...", JLabel.CENTER));
+    }
 
-        // Ajout du graphique au panel
-        ventesParMarquePanel.add(chartPanel, BorderLayout.CENTER);
+    private void afficherAucuneVente(JPanel panel) {
+        afficher(panel, new JLabel("Aucune vente sur la période sélectionnée.", JLabel.CENTER));
+    }
+
+    /**
+     * Remplace le contenu d'un onglet
+     */
+    private void afficher(JPanel panel, JComponent contenu) {
+        panel.removeAll();
+        panel.add(contenu, BorderLayout.CENTER);
+        panel.revalidate();
+        panel.repaint();
     }
-}
\ No newline at end of file
+}
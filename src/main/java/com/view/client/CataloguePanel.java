@@ -2,12 +2,16 @@ package main.java.com.view.client;
 
 import main.java.com.controller.ArticleController;
 import main.java.com.controller.PanierController;
+import main.java.com.dao.ArticleSort;
 import main.java.com.dao.DAOFactory;
 import main.java.com.dao.MarqueDAO;
 import main.java.com.model.Article;
 import main.java.com.model.ArticleMarque;
 import main.java.com.model.Marque;
+import main.java.com.view.common.BackgroundTasks;
 import main.java.com.view.common.MainFrame;
+import main.java.com.view.common.ScrollPaging;
+import main.java.com.view.common.ThumbnailLoader;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -21,6 +25,8 @@ import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.io.File;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 /**
  * Panel pour afficher le catalogue d'articles
@@ -30,6 +36,8 @@ public class CataloguePanel extends JPanel {
     // Constantes
     private static final int DEFAULT_QUANTITY = 1;
     private static final int MAX_QUANTITY = 100;
+    private static final int TAILLE_PAGE = 100;
+    private static final int LARGEUR_VIGNETTE = 200;
 
     // Contrôleurs et DAO
     private ArticleController articleController;
@@ -57,6 +65,14 @@ public class CataloguePanel extends JPanel {
     // Panneau d'image
     private JPanel imagePanel;
     private JLabel imageLabel;
+    private Future<?> chargementImage;
+
+    // Pagination du catalogue complet
+    private Article dernierArticle;
+    private boolean pagesRestantes;
+
+    // Lecture en cours de la liste d'articles (page, recherche ou filtre par marque)
+    private Future<?> chargementArticles;
 
     /**
      * Constructeur du panel de catalogue
@@ -163,6 +179,7 @@ public class CataloguePanel extends JPanel {
 
         // Ajout d'un JScrollPane pour la liste des articles
         JScrollPane articleScrollPane = new JScrollPane(articleList);
+        ScrollPaging.install(articleScrollPane, this::chargerPageSuivante);
         centerPanel.add(articleScrollPane, BorderLayout.CENTER);
 
         // Panel de droite pour les détails et actions
@@ -205,8 +222,7 @@ public class CataloguePanel extends JPanel {
             public void actionPerformed(ActionEvent e) {
                 String searchTerm = searchField.getText().trim();
                 if (!searchTerm.isEmpty()) {
-                    List<Article> articles = articleController.searchArticlesByName(searchTerm);
-                    updateArticleList(articles);
+                    chargerListe(() -> articleController.searchArticlesByName(searchTerm));
                 }
             }
         };
@@ -227,8 +243,7 @@ public class CataloguePanel extends JPanel {
         allArticlesButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                List<Article> articles = articleController.getAllArticles();
-                updateArticleList(articles);
+                chargerCatalogue();
                 marqueList.clearSelection();
                 searchField.setText("");
             }
@@ -241,8 +256,7 @@ public class CataloguePanel extends JPanel {
                 if (!e.getValueIsAdjusting()) {
                     Marque selectedMarque = marqueList.getSelectedValue();
                     if (selectedMarque != null) {
-                        List<Article> articles = articleController.getArticlesByMarque(selectedMarque.getId());
-                        updateArticleList(articles);
+                        chargerListe(() -> articleController.getArticlesByMarque(selectedMarque.getId()));
                     }
                 }
             }
@@ -259,7 +273,7 @@ public class CataloguePanel extends JPanel {
                         addToCartButton.setEnabled(true);
                     } else {
                         articleDetailArea.setText("");
-                        imageLabel.setIcon(null);
+                        afficherImage(null);
                         addToCartButton.setEnabled(false);
                     }
                 }
@@ -309,23 +323,89 @@ public class CataloguePanel extends JPanel {
      * Charge les données
      */
     private void loadData() {
-        // Charge les marques
-        List<Marque> marques = marqueDAO.findAll();
-        for (Marque marque : marques) {
-            marqueModel.addElement(marque);
+        chargerMarques();
+
+        // Charge la première page du catalogue
+        chargerCatalogue();
+    }
+
+    /**
+     * Charge la liste des marques en arrière-plan
+     */
+    private void chargerMarques() {
+        BackgroundTasks.run(this, marqueDAO::findAll, marques -> {
+            marqueModel.clear();
+            marqueModel.addAll(marques);
+        });
+    }
+
+    /**
+     * Relance les chargements interrompus lorsque l'utilisateur a quitté le catalogue
+     * (les pages d'articles sont reprises par le défilement)
+     */
+    public void reprendreChargement() {
+        if (marqueModel.isEmpty()) {
+            chargerMarques();
+        }
+    }
+
+    /**
+     * Affiche le catalogue complet, page par page au fil du défilement
+     */
+    private void chargerCatalogue() {
+        annulerChargementArticles();
+        dernierArticle = null;
+        pagesRestantes = true;
+        articleModel.clear();
+        chargerPageSuivante();
+    }
+
+    /**
+     * Ajoute la page suivante du catalogue à la liste
+     */
+    private void chargerPageSuivante() {
+        if (BackgroundTasks.isPending(chargementArticles) || !pagesRestantes) {
+            return;
         }
 
-        // Charge tous les articles
-        List<Article> articles = articleController.getAllArticles();
-        updateArticleList(articles);
+        Article apres = dernierArticle;
+        chargementArticles = BackgroundTasks.run(this,
+                () -> articleController.getArticlesPage(apres, TAILLE_PAGE, ArticleSort.NOM),
+                page -> {
+                    if (!page.isEmpty()) {
+                        dernierArticle = page.get(page.size() - 1);
+                        articleModel.addAll(page);
+                    }
+                    pagesRestantes = page.size() == TAILLE_PAGE;
+                });
     }
 
     /**
-     * Met à jour la liste des articles
+     * Remplace la liste des articles par le résultat d'une requête exécutée en arrière-plan
+     * Une lecture encore en cours est abandonnée pour que son résultat n'écrase pas le nouveau
+     *
+     * @param requete La lecture des articles à afficher
+     */
+    private void chargerListe(Callable<List<Article>> requete) {
+        annulerChargementArticles();
+        pagesRestantes = false;
+        chargementArticles = BackgroundTasks.run(this, requete, this::updateArticleList);
+    }
+
+    private void annulerChargementArticles() {
+        if (chargementArticles != null) {
+            chargementArticles.cancel(false);
+            chargementArticles = null;
+        }
+    }
+
+    /**
+     * Met à jour la liste des articles (résultat d'une recherche ou d'un filtre, sans pagination)
      *
      * @param articles Liste des articles à afficher
      */
     private void updateArticleList(List<Article> articles) {
+        pagesRestantes = false;
         articleModel.clear();
         for (Article article : articles) {
             articleModel.addElement(article);
@@ -352,25 +432,36 @@ public class CataloguePanel extends JPanel {
         details.append("\nStock disponible: ").append(article.getStock()).append(" unités\n");
 
         // Affichage de l'image si disponible
+        File imageFile = null;
         if (article.getImageUrl() != null && !article.getImageUrl().isEmpty()) {
-            File imageFile = new File("src/main/resources/img/" + article.getImageUrl());
-            if (imageFile.exists()) {
-                ImageIcon icon = new ImageIcon(imageFile.getAbsolutePath());
-                // Redimensionner l'image si elle est trop grande
-                if (icon.getIconWidth() > 200) {
-                    icon = new ImageIcon(icon.getImage().getScaledInstance(200, -1, Image.SCALE_SMOOTH));
-                }
-                imageLabel.setIcon(icon);
-            } else {
-                imageLabel.setIcon(null);
-            }
-        } else {
-            imageLabel.setIcon(null);
+            imageFile = new File("src/main/resources/img/" + article.getImageUrl());
         }
+        afficherImage(imageFile);
 
         articleDetailArea.setText(details.toString());
     }
 
+    /**
+     * Affiche la vignette d'un article, chargée en arrière-plan
+     * Le chargement précédent est annulé pour qu'une image ancienne ne remplace pas la nouvelle
+     *
+     * @param imageFile Le fichier image, ou null pour n'afficher aucune image
+     */
+    private void afficherImage(File imageFile) {
+        if (chargementImage != null) {
+            chargementImage.cancel(false);
+            chargementImage = null;
+        }
+
+        if (imageFile == null || !imageFile.exists()) {
+            imageLabel.setIcon(null);
+            return;
+        }
+
+        imageLabel.setIcon(ThumbnailLoader.getPlaceholder(LARGEUR_VIGNETTE, LARGEUR_VIGNETTE * 3 / 4));
+        chargementImage = ThumbnailLoader.load(this, imageFile, LARGEUR_VIGNETTE, imageLabel::setIcon);
+    }
+
     /**
      * Récupère le contrôleur de panier
      *
@@ -3,6 +3,7 @@ package main.java.com.view.client;
 import main.java.com.controller.CommandeController;
 import main.java.com.model.Commande;
 import main.java.com.model.LigneCommande;
+import main.java.com.view.common.BackgroundTasks;
 import main.java.com.view.common.MainFrame;
 
 import javax.swing.*;
@@ -13,12 +14,20 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
 
 /**
  * Panel pour afficher l'historique des commandes d'un client
  */
 public class HistoriqueCommandesPanel extends JPanel {
+    // Commandes préchargées quand la table n'est pas encore affichée (pas de lignes visibles)
+    private static final int PAGE_PRECHARGEMENT = 20;
+
     private MainFrame mainFrame;
     private int clientId;
     private CommandeController commandeController;
@@ -29,6 +38,20 @@ public class HistoriqueCommandesPanel extends JPanel {
     private LigneCommandeTableModel ligneModel;
     private JButton retourButton;
     private JTextArea detailsArea;
+    private JScrollPane commandesScrollPane;
+
+    // Lectures en cours (commandes du client, lignes de la commande sélectionnée)
+    private Future<?> chargementCommandes;
+    private Future<?> chargementLignes;
+
+    // Préchargement des lignes des commandes visibles, en une requête par défilement
+    private boolean prechargement = true;
+    private final Map<Integer, List<LigneCommande>> lignesParCommande = new HashMap<>();
+    private final Set<Integer> lignesDemandees = new HashSet<>();
+    private final List<Future<?>> prechargementsLignes = new ArrayList<>();
+
+    // Commande sélectionnée dont les lignes sont attendues d'un préchargement en cours (-1 : aucune)
+    private int commandeEnAttente = -1;
 
     /**
      * Constructeur du panel d'historique des commandes
@@ -80,7 +103,7 @@ public class HistoriqueCommandesPanel extends JPanel {
         JPanel centerPanel = new JPanel(new BorderLayout(10, 10));
 
         // Table des commandes
-        JScrollPane commandesScrollPane = new JScrollPane(commandesTable);
+        commandesScrollPane = new JScrollPane(commandesTable);
         commandesScrollPane.setBorder(BorderFactory.createTitledBorder("Vos commandes"));
         centerPanel.add(commandesScrollPane, BorderLayout.NORTH);
 
@@ -116,6 +139,9 @@ public class HistoriqueCommandesPanel extends JPanel {
             }
         });
 
+        // Défilement de la table des commandes : précharge les lignes des commandes devenues visibles
+        commandesScrollPane.getViewport().addChangeListener(e -> prechargerLignesVisibles());
+
         // Sélection d'une commande
         commandesTable.getSelectionModel().addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting()) {
@@ -136,16 +162,113 @@ public class HistoriqueCommandesPanel extends JPanel {
      * Charge les données
      */
     private void loadData() {
-        List<Commande> commandes = commandeController.getCommandesByClient(clientId);
-        commandeModel.setCommandes(commandes);
-        commandeModel.fireTableDataChanged();
+        if (chargementCommandes != null) {
+            chargementCommandes.cancel(false);
+        }
+        annulerPrechargements();
+        chargementCommandes = BackgroundTasks.run(this, () -> commandeController.getCommandesByClient(clientId), commandes -> {
+            // Y compris ceux lancés par un défilement pendant la lecture
+            annulerPrechargements();
+            lignesParCommande.clear();
+            commandeModel.setCommandes(commandes);
+            commandeModel.fireTableDataChanged();
+
+            // Vide la table des lignes de commande
+            ligneModel.setLignes(new ArrayList<>());
+            ligneModel.fireTableDataChanged();
+
+            // Vide la zone de détails
+            detailsArea.setText("");
 
-        // Vide la table des lignes de commande
-        ligneModel.setLignes(new ArrayList<>());
-        ligneModel.fireTableDataChanged();
+            // Après la mise en page de la table, pour connaître les lignes visibles
+            SwingUtilities.invokeLater(this::prechargerLignesVisibles);
+        });
+    }
+
+    /**
+     * Annule les préchargements de lignes en cours : ceux de l'ancienne liste ne doivent pas
+     * remplir le cache de la nouvelle
+     */
+    private void annulerPrechargements() {
+        for (Future<?> prechargementLignes : prechargementsLignes) {
+            prechargementLignes.cancel(false);
+        }
+        prechargementsLignes.clear();
+        lignesDemandees.clear();
+        commandeEnAttente = -1;
+    }
+
+    /**
+     * Active ou désactive le préchargement des lignes des commandes visibles
+     * Désactivé, les lignes d'une commande ne sont lues qu'à sa sélection
+     * @param prechargement true pour précharger
+     */
+    public void setPrechargement(boolean prechargement) {
+        this.prechargement = prechargement;
+        if (prechargement) {
+            prechargerLignesVisibles();
+        }
+    }
+
+    /**
+     * Lit en une seule requête les lignes des commandes visibles qui ne sont pas encore chargées
+     */
+    private void prechargerLignesVisibles() {
+        int nombreCommandes = commandeModel.getRowCount();
+        if (!prechargement || nombreCommandes == 0) {
+            return;
+        }
+
+        Rectangle visible = commandesTable.getVisibleRect();
+        int premiere = commandesTable.rowAtPoint(visible.getLocation());
+        int derniere = commandesTable.rowAtPoint(new Point(visible.x, visible.y + visible.height - 1));
+        if (premiere < 0) {
+            premiere = 0;
+        }
+        if (derniere < 0 || visible.isEmpty()) {
+            derniere = Math.min(nombreCommandes, premiere + PAGE_PRECHARGEMENT) - 1;
+        }
+
+        List<Integer> commandeIds = new ArrayList<>();
+        for (int row = premiere; row <= derniere; row++) {
+            int commandeId = commandeModel.getCommandeIdAt(row);
+            if (commandeId >= 0 && !lignesParCommande.containsKey(commandeId) && lignesDemandees.add(commandeId)) {
+                commandeIds.add(commandeId);
+            }
+        }
+        if (commandeIds.isEmpty()) {
+            return;
+        }
+
+        // Préchargements terminés : plus rien à annuler
+        prechargementsLignes.removeIf(prechargementLignes -> !BackgroundTasks.isPending(prechargementLignes));
+        prechargementsLignes.add(BackgroundTasks.run(this, () -> commandeController.getLignesCommandes(commandeIds), lignes -> {
+            lignesDemandees.removeAll(commandeIds);
+            lignesParCommande.putAll(lignes);
+            if (commandeIds.contains(commandeEnAttente)) {
+                if (lignes.containsKey(commandeEnAttente)) {
+                    afficherLignes(lignes.get(commandeEnAttente));
+                    commandeEnAttente = -1;
+                } else {
+                    // Préchargement en échec (le DAO retourne alors une map vide) : lecture de ses seules lignes
+                    loadLignesCommande(commandeEnAttente);
+                }
+            }
+        }, ex -> {
+            lignesDemandees.removeAll(commandeIds);
+            System.err.println("Erreur lors du préchargement des lignes de commande : " + ex.getMessage());
+            // La commande sélectionnée attendait ce préchargement : lecture de ses seules lignes
+            if (commandeIds.contains(commandeEnAttente)) {
+                loadLignesCommande(commandeEnAttente);
+            }
+        }));
+    }
 
-        // Vide la zone de détails
-        detailsArea.setText("");
+    /**
+     * Relit l'historique (appelé à chaque affichage du panel, pour inclure les dernières commandes)
+     */
+    public void refreshHistorique() {
+        loadData();
     }
 
     /**
@@ -153,7 +276,37 @@ public class HistoriqueCommandesPanel extends JPanel {
      * @param commandeId L'ID de la commande
      */
     private void loadLignesCommande(int commandeId) {
-        List<LigneCommande> lignes = commandeController.getLignesCommande(commandeId);
+        // Une sélection plus ancienne ne doit pas remplacer les lignes de la nouvelle
+        if (chargementLignes != null) {
+            chargementLignes.cancel(false);
+        }
+        chargementLignes = null;
+        commandeEnAttente = -1;
+
+        // Lignes déjà préchargées : affichage immédiat, sans requête
+        List<LigneCommande> prechargees = lignesParCommande.get(commandeId);
+        if (prechargees != null) {
+            afficherLignes(prechargees);
+            return;
+        }
+
+        // Lignes en cours de préchargement : affichées à l'arrivée du préchargement, sans seconde requête
+        if (lignesDemandees.contains(commandeId)) {
+            commandeEnAttente = commandeId;
+            return;
+        }
+
+        chargementLignes = BackgroundTasks.run(this, () -> commandeController.getLignesCommande(commandeId), lignes -> {
+            lignesParCommande.put(commandeId, lignes);
+            afficherLignes(lignes);
+        });
+    }
+
+    /**
+     * Affiche les lignes de la commande sélectionnée
+     * @param lignes Les lignes de la commande
+     */
+    private void afficherLignes(List<LigneCommande> lignes) {
         ligneModel.setLignes(lignes);
         ligneModel.fireTableDataChanged();
     }
@@ -5,6 +5,8 @@ import main.java.com.dao.DAOFactory;
 import main.java.com.dao.MarqueDAO;
 import main.java.com.model.ArticleMarque;
 import main.java.com.model.LigneCommande;
+import main.java.com.model.Marque;
+import main.java.com.view.common.BackgroundTasks;
 import main.java.com.view.common.MainFrame;
 
 import javax.swing.*;
@@ -20,7 +22,12 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Panel pour afficher et gérer le panier d'achat
@@ -250,29 +257,36 @@ public class PanierPanel extends JPanel implements ActionListener, TableModelLis
                 return;
             }
 
-            // Dans une implémentation réelle, il faudrait rechercher la remise dans la base
-            // et l'appliquer au panier. Pour l'instant, nous simulons une remise de 10%.
-            if (code.equals("REMISE10")) {
-                // Créer une remise fictive pour test
-                double remiseMontant = panierController.getMontantTotal() * 0.1;
-                panierController.annulerRemise();
-
-                // Simuler l'application d'une remise
-                JOptionPane.showMessageDialog(this,
-                        "Code de remise appliqué avec succès !",
-                        "Remise appliquée",
-                        JOptionPane.INFORMATION_MESSAGE);
-
-                updateTotals(remiseMontant);
-            } else {
-                JOptionPane.showMessageDialog(this,
-                        "Code de remise invalide.",
-                        "Code invalide",
-                        JOptionPane.ERROR_MESSAGE);
-            }
+            // Le code est résolu par l'index des remises (lu en base au premier usage)
+            appliquerRemiseButton.setEnabled(false);
+            BackgroundTasks.run(null, () -> panierController.trouverRemise(code), remise -> {
+                appliquerRemiseButton.setEnabled(true);
+                if (remise == null) {
+                    JOptionPane.showMessageDialog(this,
+                            "Code de remise invalide.",
+                            "Code invalide",
+                            JOptionPane.ERROR_MESSAGE);
+                } else if (panierController.appliquerRemise(remise)) {
+                    JOptionPane.showMessageDialog(this,
+                            "Code de remise appliqué avec succès !",
+                            "Remise appliquée",
+                            JOptionPane.INFORMATION_MESSAGE);
+                    updateTotals(panierController.getMontantRemise());
+                } else {
+                    JOptionPane.showMessageDialog(this,
+                            "Ce code de remise n'est pas valide aujourd'hui, ou le panier ne contient pas "
+                                    + remise.getQuantiteMin() + " articles.",
+                            "Remise non applicable",
+                            JOptionPane.WARNING_MESSAGE);
+                }
+            }, erreur -> {
+                appliquerRemiseButton.setEnabled(true);
+                System.err.println("Erreur lors de la recherche de la remise : " + erreur.getMessage());
+            });
         }
         else if (source == validerCommandeButton) {
-            if (panierController.getLignesPanier().isEmpty()) {
+            PanierController.PanierFige panier = panierController.figerPanier();
+            if (panier == null) {
                 JOptionPane.showMessageDialog(this,
                         "Votre panier est vide.",
                         "Panier vide",
@@ -283,19 +297,36 @@ public class PanierPanel extends JPanel implements ActionListener, TableModelLis
             int clientId = mainFrame.getCurrentUserId();
             String note = noteField.getText().trim();
 
-            int commandeId = panierController.validerPanier(clientId, note);
-            if (commandeId > 0) {
-                JOptionPane.showMessageDialog(this,
-                        "Commande validée avec succès !\nNuméro de commande: " + commandeId,
-                        "Commande validée",
-                        JOptionPane.INFORMATION_MESSAGE);
+            // Transaction en arrière-plan et sans propriétaire : la commande va à son terme
+            // et son résultat est affiché même si l'utilisateur a changé d'écran entre-temps
+            // Elle porte sur une copie du panier, qui reste modifiable depuis le catalogue
+            validerCommandeButton.setEnabled(false);
+            panierTable.setEnabled(false);
+            BackgroundTasks.run(null, () -> panierController.validerPanier(clientId, note, panier), commandeId -> {
+                validerCommandeButton.setEnabled(true);
+                panierTable.setEnabled(true);
+                if (commandeId > 0) {
+                    panierController.terminerValidation(panier);
+                    JOptionPane.showMessageDialog(this,
+                            "Commande validée avec succès !\nNuméro de commande: " + commandeId,
+                            "Commande validée",
+                            JOptionPane.INFORMATION_MESSAGE);
+                } else {
+                    JOptionPane.showMessageDialog(this,
+                            "Erreur lors de la validation de la commande.",
+                            "Erreur",
+                            JOptionPane.ERROR_MESSAGE);
+                }
                 refreshPanier();
-            } else {
+            }, ex -> {
+                validerCommandeButton.setEnabled(true);
+                panierTable.setEnabled(true);
                 JOptionPane.showMessageDialog(this,
-                        "Erreur lors de la validation de la commande.",
+                        "Erreur lors de la validation de la commande : " + ex.getMessage(),
                         "Erreur",
                         JOptionPane.ERROR_MESSAGE);
-            }
+                refreshPanier();
+            });
         }
     }
 
@@ -318,6 +349,43 @@ public class PanierPanel extends JPanel implements ActionListener, TableModelLis
 
         // Met à jour les totaux
         updateTotals(panierController.getMontantRemise());
+
+        chargerMarques();
+    }
+
+    /**
+     * Lit en arrière-plan les marques des lignes qui n'en ont pas encore, puis les affiche
+     */
+    private void chargerMarques() {
+        List<ArticleMarque> sansMarque = new ArrayList<>();
+        Set<Integer> marqueIds = new HashSet<>();
+        for (LigneCommande ligne : panierController.getLignesPanier()) {
+            ArticleMarque articleMarque = ligne.getArticleMarque();
+            if (articleMarque != null && articleMarque.getMarque() == null && articleMarque.getMarqueId() > 0) {
+                sansMarque.add(articleMarque);
+                marqueIds.add(articleMarque.getMarqueId());
+            }
+        }
+        if (sansMarque.isEmpty()) {
+            return;
+        }
+
+        BackgroundTasks.run(this, () -> {
+            // Marques lues dans le cache des marques, la base n'est interrogée qu'en cas d'absence
+            Map<Integer, Marque> marques = new HashMap<>();
+            for (Integer marqueId : marqueIds) {
+                Marque marque = marqueDAO.findById(marqueId);
+                if (marque != null) {
+                    marques.put(marqueId, marque);
+                }
+            }
+            return marques;
+        }, marques -> {
+            for (ArticleMarque articleMarque : sansMarque) {
+                articleMarque.setMarque(marques.get(articleMarque.getMarqueId()));
+            }
+            panierModel.fireTableDataChanged();
+        });
     }
 
     /**
@@ -391,13 +459,6 @@ public class PanierPanel extends JPanel implements ActionListener, TableModelLis
                     case COLUMN_MARQUE: // Marque
                         if (articleMarque != null && articleMarque.getMarque() != null) {
                             return articleMarque.getMarque().getNom();
-                        } else if (articleMarque != null) {
-                            // Essaie de charger la marque depuis la base de données
-                            try {
-                                return marqueDAO.findById(articleMarque.getMarqueId()).getNom();
-                            } catch (Exception e) {
-                                return "Marque inconnue";
-                            }
                         }
                         return "Marque inconnue";
 
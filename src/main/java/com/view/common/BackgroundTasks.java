@@ -0,0 +1,181 @@
+package main.java.com.view.common;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
+
+/**
+ * Exécution des appels aux contrôleurs et DAO hors du thread Swing
+ * Chaque tâche tourne sur un thread virtuel (les appels JDBC sont bloquants : un thread par tâche,
+ * la concurrence réelle est bornée par le pool de connexions), puis son résultat est remis
+ * sur le thread Swing
+ * Une tâche peut être rattachée à un propriétaire (en général le panel qui l'a lancée) :
+ * MainFrame annule les tâches du panel que l'utilisateur quitte
+ */
+public final class BackgroundTasks {
+    private static final ExecutorService EXECUTOR =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("shopping-tache-", 0).factory());
+
+    // Tâches en cours par propriétaire (comparés par identité, comme les composants Swing)
+    private static final Map<Object, Set<Tache<?>>> TACHES = new IdentityHashMap<>();
+
+    private BackgroundTasks() {
+    }
+
+    /**
+     * Lance une tâche en arrière-plan ; une erreur éventuelle est seulement journalisée
+     * @param owner Propriétaire de la tâche, ou null pour une tâche qui ne doit pas être annulée
+     *              en quittant le panel (une écriture en base, par exemple)
+     * @param task Le traitement à exécuter hors du thread Swing
+     * @param onSuccess Reçoit le résultat sur le thread Swing, sauf si la tâche a été annulée
+     * @return La tâche, à annuler si son résultat n'est plus utile
+     */
+    public static <T> Future<T> run(Object owner, Callable<T> task, Consumer<? super T> onSuccess) {
+        return run(owner, task, onSuccess, e ->
+                System.err.println("Erreur lors de l'exécution d'une tâche en arrière-plan : " + e.getMessage()));
+    }
+
+    /**
+     * Lance une tâche en arrière-plan
+     * @param owner Propriétaire de la tâche, ou null pour une tâche qui ne doit pas être annulée
+     *              en quittant le panel (une écriture en base, par exemple)
+     * @param task Le traitement à exécuter hors du thread Swing
+     * @param onSuccess Reçoit le résultat sur le thread Swing, sauf si la tâche a été annulée
+     * @param onError Reçoit l'erreur levée par la tâche sur le thread Swing, sauf si elle a été annulée
+     * @return La tâche, à annuler si son résultat n'est plus utile
+     */
+    public static <T> Future<T> run(Object owner, Callable<T> task, Consumer<? super T> onSuccess,
+                                    Consumer<? super Throwable> onError) {
+        Tache<T> tache = new Tache<>(owner, task, onSuccess, onError);
+        if (owner != null) {
+            synchronized (TACHES) {
+                TACHES.computeIfAbsent(owner, k -> new LinkedHashSet<>()).add(tache);
+            }
+        }
+        EXECUTOR.execute(tache);
+        return tache;
+    }
+
+    /**
+     * Annule toutes les tâches d'un propriétaire
+     * Les requêtes déjà parties vont à leur terme (interrompre un thread en pleine lecture JDBC
+     * fermerait la connexion du pool), mais leur résultat n'est pas remis au panel
+     * @param owner Le propriétaire des tâches
+     */
+    public static void cancelAll(Object owner) {
+        if (owner == null) {
+            return;
+        }
+        List<Tache<?>> taches;
+        synchronized (TACHES) {
+            Set<Tache<?>> enCours = TACHES.remove(owner);
+            if (enCours == null) {
+                return;
+            }
+            taches = new ArrayList<>(enCours);
+        }
+        for (Tache<?> tache : taches) {
+            tache.cancel(false);
+        }
+    }
+
+    /**
+     * Indique si une tâche n'a pas encore remis son résultat
+     * Une tâche annulée n'est plus considérée en attente
+     * @param future La tâche (null accepté)
+     * @return true si le résultat de la tâche est encore attendu sur le thread Swing
+     */
+    public static boolean isPending(Future<?> future) {
+        if (future instanceof Tache) {
+            return !((Tache<?>) future).isTerminee();
+        }
+        return future != null && !future.isDone();
+    }
+
+    private static void retirer(Object owner, Tache<?> tache) {
+        if (owner == null) {
+            return;
+        }
+        synchronized (TACHES) {
+            Set<Tache<?>> enCours = TACHES.get(owner);
+            if (enCours != null && enCours.remove(tache) && enCours.isEmpty()) {
+                TACHES.remove(owner);
+            }
+        }
+    }
+
+    /**
+     * Tâche dont le résultat est remis sur le thread Swing
+     * L'annulation et la remise du résultat se font toutes deux sur le thread Swing :
+     * une tâche annulée ne remet jamais son résultat, même si elle était déjà terminée
+     */
+    private static final class Tache<T> extends FutureTask<T> {
+        private final Object owner;
+        private final Consumer<? super T> onSuccess;
+        private final Consumer<? super Throwable> onError;
+        private volatile boolean annulee;
+        private volatile boolean publiee;
+
+        private Tache(Object owner, Callable<T> task, Consumer<? super T> onSuccess,
+                      Consumer<? super Throwable> onError) {
+            super(task);
+            this.owner = owner;
+            this.onSuccess = onSuccess;
+            this.onError = onError;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            annulee = true;
+            retirer(owner, this);
+            return super.cancel(mayInterruptIfRunning);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return annulee || super.isCancelled();
+        }
+
+        private boolean isTerminee() {
+            return annulee || publiee;
+        }
+
+        @Override
+        protected void done() {
+            retirer(owner, this);
+            if (!annulee) {
+                SwingUtilities.invokeLater(this::publier);
+            }
+        }
+
+        private void publier() {
+            if (annulee) {
+                return;
+            }
+            publiee = true;
+
+            T resultat;
+            try {
+                resultat = get();
+            } catch (ExecutionException e) {
+                onError.accept(e.getCause() != null ? e.getCause() : e);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            onSuccess.accept(resultat);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package main.java.com.view.common;
 
+import main.java.com.controller.AdministrateurController;
 import main.java.com.view.admin.GestionArticlesPanel;
 import main.java.com.view.admin.GestionClientsPanel;
 import main.java.com.view.admin.GestionRemisesPanel;
@@ -31,6 +32,9 @@ public class MainFrame extends JFrame {
     private CardLayout cardLayout;
     private JPanel contentPanel;
 
+    // Panel actuellement affiché (ses tâches en arrière-plan sont annulées quand on le quitte)
+    private JPanel panelCourant;
+
     // User information
     private int currentUserId;
     private String currentUserType;
@@ -89,7 +93,7 @@ public class MainFrame extends JFrame {
         setupListeners();
 
         // Par défaut, affiche l'écran de connexion
-        cardLayout.show(contentPanel, "login");
+        afficher(loginPanel, "login");
     }
 
     /**
@@ -276,7 +280,21 @@ public class MainFrame extends JFrame {
      * Affiche le panel d'inscription
      */
     public void showRegistrationPanel() {
-        cardLayout.show(contentPanel, "inscription");
+        afficher(inscriptionPanel, "inscription");
+    }
+
+    /**
+     * Affiche un panel du CardLayout
+     * Les chargements en arrière-plan du panel quitté sont annulés : leurs résultats ne sont plus attendus
+     * @param panel Le panel à afficher
+     * @param nom Le nom du panel dans le CardLayout
+     */
+    private void afficher(JPanel panel, String nom) {
+        if (panelCourant != null && panelCourant != panel) {
+            BackgroundTasks.cancelAll(panelCourant);
+        }
+        panelCourant = panel;
+        cardLayout.show(contentPanel, nom);
     }
 
     /**
@@ -286,8 +304,10 @@ public class MainFrame extends JFrame {
         if (cataloguePanel == null) {
             cataloguePanel = new CataloguePanel(this);
             contentPanel.add(cataloguePanel, "catalogue");
+        } else {
+            cataloguePanel.reprendreChargement();
         }
-        cardLayout.show(contentPanel, "catalogue");
+        afficher(cataloguePanel, "catalogue");
     }
 
     /**
@@ -301,7 +321,7 @@ public class MainFrame extends JFrame {
             // Rafraîchit le panier pour s'assurer que les données sont à jour
             panierPanel.refreshPanier();
         }
-        cardLayout.show(contentPanel, "panier");
+        afficher(panierPanel, "panier");
     }
 
     /**
@@ -311,8 +331,11 @@ public class MainFrame extends JFrame {
         if (historiquePanel == null) {
             historiquePanel = new HistoriqueCommandesPanel(this, currentUserId);
             contentPanel.add(historiquePanel, "historique");
+        } else {
+            // Relit l'historique pour inclure les commandes passées depuis le dernier affichage
+            historiquePanel.refreshHistorique();
         }
-        cardLayout.show(contentPanel, "historique");
+        afficher(historiquePanel, "historique");
     }
 
     /**
@@ -323,7 +346,7 @@ public class MainFrame extends JFrame {
             gestionArticlesPanel = new GestionArticlesPanel(this);
             contentPanel.add(gestionArticlesPanel, "gestionArticles");
         }
-        cardLayout.show(contentPanel, "gestionArticles");
+        afficher(gestionArticlesPanel, "gestionArticles");
     }
 
     /**
@@ -334,7 +357,7 @@ public class MainFrame extends JFrame {
             gestionClientsPanel = new GestionClientsPanel(this);
             contentPanel.add(gestionClientsPanel, "gestionClients");
         }
-        cardLayout.show(contentPanel, "gestionClients");
+        afficher(gestionClientsPanel, "gestionClients");
     }
 
     /**
@@ -345,7 +368,7 @@ public class MainFrame extends JFrame {
             gestionRemisesPanel = new GestionRemisesPanel(this);
             contentPanel.add(gestionRemisesPanel, "gestionRemises");
         }
-        cardLayout.show(contentPanel, "gestionRemises");
+        afficher(gestionRemisesPanel, "gestionRemises");
     }
 
     /**
@@ -355,8 +378,11 @@ public class MainFrame extends JFrame {
         if (statistiquesPanel == null) {
             statistiquesPanel = new StatistiquesPanel();
             contentPanel.add(statistiquesPanel, "statistiques");
+        } else {
+            // Recalcule avec les ventes enregistrées depuis le dernier affichage
+            statistiquesPanel.refreshStatistiques();
         }
-        cardLayout.show(contentPanel, "statistiques");
+        afficher(statistiquesPanel, "statistiques");
     }
 
     /**
@@ -367,7 +393,7 @@ public class MainFrame extends JFrame {
             reportingPanel = new ReportingPanel(this);
             contentPanel.add(reportingPanel, "reporting");
         }
-        cardLayout.show(contentPanel, "reporting");
+        afficher(reportingPanel, "reporting");
     }
 
     /**
@@ -397,13 +423,14 @@ public class MainFrame extends JFrame {
     public void logout() {
         currentUserId = 0;
         currentUserType = null;
+        AdministrateurController.clearPermissionsCache();
 
         // Désactive les menus
         menuClient.setEnabled(false);
         menuAdmin.setEnabled(false);
 
         // Retour à l'écran de connexion
-        cardLayout.show(contentPanel, "login");
+        afficher(loginPanel, "login");
     }
 
     /**
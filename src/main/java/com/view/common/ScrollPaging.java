@@ -0,0 +1,40 @@
+package main.java.com.view.common;
+
+import javax.swing.*;
+import java.awt.event.HierarchyEvent;
+
+/**
+ * Chargement page par page d'une liste affichée dans un JScrollPane
+ * Demande la page suivante lorsque l'utilisateur approche du bas de la liste, ou lorsque la liste
+ * est de nouveau affichée (un chargement annulé en quittant le panel est ainsi repris)
+ */
+public final class ScrollPaging {
+    // Distance au bas de la liste (en pixels) à partir de laquelle la page suivante est demandée
+    private static final int SEUIL_PIXELS = 200;
+
+    private ScrollPaging() {
+    }
+
+    /**
+     * Installe le chargement à la demande sur un JScrollPane
+     * Le chargeur peut être appelé plusieurs fois de suite : c'est à lui d'ignorer les appels
+     * lorsqu'un chargement est déjà en cours ou qu'il n'y a plus de page à lire
+     * @param scrollPane Le JScrollPane contenant la liste
+     * @param chargerPageSuivante Action qui charge et ajoute la page suivante
+     */
+    public static void install(JScrollPane scrollPane, Runnable chargerPageSuivante) {
+        JScrollBar scrollBar = scrollPane.getVerticalScrollBar();
+        Runnable verifier = () -> {
+            int bas = scrollBar.getValue() + scrollBar.getVisibleAmount();
+            if (scrollBar.getMaximum() - bas <= SEUIL_PIXELS) {
+                chargerPageSuivante.run();
+            }
+        };
+        scrollBar.addAdjustmentListener(e -> verifier.run());
+        scrollPane.addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && scrollPane.isShowing()) {
+                verifier.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,156 @@
+package main.java.com.view.common;
+
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Chargement des vignettes d'articles hors du thread Swing
+ * L'image est décodée et réduite en arrière-plan, puis conservée dans un cache LRU
+ * borné en octets pour que les sélections suivantes soient immédiates
+ */
+public final class ThumbnailLoader {
+    // Taille maximale du cache (4 octets par pixel)
+    private static final long CACHE_MAX_BYTES = 32L * 1024 * 1024;
+
+    private static final LinkedHashMap<String, BufferedImage> CACHE = new LinkedHashMap<>(16, 0.75f, true);
+    private static long cacheBytes;
+
+    private static ImageIcon placeholder;
+
+    private ThumbnailLoader() {
+    }
+
+    /**
+     * Charge la vignette d'une image
+     * Si elle est en cache, onLoaded est appelé immédiatement ; sinon elle est préparée en arrière-plan
+     * et onLoaded est appelé sur le thread Swing, sauf si le chargement a été annulé entre-temps
+     * @param owner Le composant qui affiche la vignette (le chargement est annulé quand on le quitte)
+     * @param file Le fichier image
+     * @param maxWidth Largeur maximale de la vignette
+     * @param onLoaded Reçoit la vignette, ou null si l'image n'a pas pu être lue
+     * @return Le chargement en cours, à annuler si la vignette n'est plus utile (null si servie depuis le cache)
+     */
+    public static Future<BufferedImage> load(Object owner, File file, int maxWidth, Consumer<ImageIcon> onLoaded) {
+        String key = file.getAbsolutePath() + "@" + maxWidth;
+        BufferedImage cached = getCached(key);
+        if (cached != null) {
+            onLoaded.accept(new ImageIcon(cached));
+            return null;
+        }
+
+        return BackgroundTasks.run(owner,
+                () -> {
+                    BufferedImage source = ImageIO.read(file);
+                    if (source == null) {
+                        return null;
+                    }
+                    BufferedImage thumbnail = scale(source, maxWidth);
+                    putCached(key, thumbnail);
+                    return thumbnail;
+                },
+                thumbnail -> onLoaded.accept(thumbnail != null ? new ImageIcon(thumbnail) : null),
+                e -> {
+                    System.err.println("Erreur lors du chargement de l'image " + file.getName() + " : " + e.getMessage());
+                    onLoaded.accept(null);
+                });
+    }
+
+    /**
+     * Icône affichée pendant le chargement d'une vignette
+     * @param width Largeur de l'icône
+     * @param height Hauteur de l'icône
+     * @return L'icône d'attente
+     */
+    public static synchronized ImageIcon getPlaceholder(int width, int height) {
+        if (placeholder == null || placeholder.getIconWidth() != width || placeholder.getIconHeight() != height) {
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = image.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setColor(new Color(235, 235, 235));
+            g.fillRect(0, 0, width, height);
+            g.setColor(Color.GRAY);
+            String text = "Chargement...";
+            FontMetrics metrics = g.getFontMetrics();
+            g.drawString(text, (width - metrics.stringWidth(text)) / 2, (height + metrics.getAscent()) / 2);
+            g.dispose();
+            placeholder = new ImageIcon(image);
+        }
+        return placeholder;
+    }
+
+    /**
+     * Réduit l'image par divisions successives par deux, puis à la largeur exacte
+     * (plus rapide que getScaledInstance et d'une qualité comparable)
+     */
+    private static BufferedImage scale(BufferedImage source, int maxWidth) {
+        BufferedImage current = toArgb(source);
+        if (current.getWidth() <= maxWidth) {
+            return current;
+        }
+
+        int targetHeight = Math.max(1, (int) Math.round((double) current.getHeight() * maxWidth / current.getWidth()));
+        int width = current.getWidth();
+        int height = current.getHeight();
+        do {
+            width = Math.max(maxWidth, width / 2);
+            height = width == maxWidth ? targetHeight : Math.max(targetHeight, height / 2);
+
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = step.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(current, 0, 0, width, height, null);
+            g.dispose();
+            current = step;
+        } while (width > maxWidth);
+
+        return current;
+    }
+
+    private static BufferedImage toArgb(BufferedImage source) {
+        if (source.getType() == BufferedImage.TYPE_INT_ARGB) {
+            return source;
+        }
+        BufferedImage converted = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = converted.createGraphics();
+        g.drawImage(source, 0, 0, null);
+        g.dispose();
+        return converted;
+    }
+
+    private static synchronized BufferedImage getCached(String key) {
+        return CACHE.get(key);
+    }
+
+    private static synchronized void putCached(String key, BufferedImage image) {
+        long size = sizeOf(image);
+        if (size > CACHE_MAX_BYTES) {
+            return;
+        }
+
+        BufferedImage previous = CACHE.put(key, image);
+        if (previous != null) {
+            cacheBytes -= sizeOf(previous);
+        }
+        cacheBytes += size;
+
+        // Éviction des vignettes les moins récemment affichées
+        Iterator<Map.Entry<String, BufferedImage>> iterator = CACHE.entrySet().iterator();
+        while (cacheBytes > CACHE_MAX_BYTES && iterator.hasNext()) {
+            Map.Entry<String, BufferedImage> eldest = iterator.next();
+            cacheBytes -= sizeOf(eldest.getValue());
+            iterator.remove();
+        }
+    }
+
+    private static long sizeOf(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight() * 4;
+    }
+}
@@ -1,9 +1,30 @@
 package main.java.com.view.reporting;
 
+import java.awt.BorderLayout;
 import java.awt.Color;
+import java.awt.Cursor;
 import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import javax.swing.JComponent;
+import javax.swing.JPanel;
+
+import main.java.com.view.common.BackgroundTasks;
 
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
@@ -17,8 +38,105 @@ import org.jfree.data.general.DefaultPieDataset;
 
 /**
  * Classe utilitaire pour générer des graphiques
+ * Les graphiques peuvent être construits et dessinés en image hors du thread Swing (voir render) ;
+ * les images sont conservées en cache pour que le réaffichage d'un même rapport soit immédiat
  */
 public class ChartGenerator {
+    // Taille de rendu quand le composant cible n'a pas encore été disposé
+    private static final int LARGEUR_DEFAUT = 500;
+    private static final int HAUTEUR_DEFAUT = 400;
+
+    // Nombre maximal de points tracés par série d'un graphique à lignes, par défaut
+    public static final int MAX_POINTS_DEFAUT = 500;
+
+    // Nombre d'images conservées et durée pendant laquelle elles restent valides
+    // (les ventes enregistrées par un autre poste ne sont pas signalées à cette application)
+    private static final int CACHE_MAX_ENTREES = 16;
+    private static final long CACHE_VALIDITE_MS = 5 * 60_000;
+
+    private static final Map<String, Rendu> CACHE = new LinkedHashMap<String, Rendu>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Rendu> eldest) {
+            return size() > CACHE_MAX_ENTREES;
+        }
+    };
+
+    /**
+     * Construit la clé de cache d'un graphique
+     * @param type Type de rapport (identifie aussi le panel qui l'affiche)
+     * @param version Version des données (voir StatistiquesDAO.getVersion)
+     * @param parametres Paramètres du rapport (période, limite...)
+     * @return La clé
+     */
+    public static String cle(String type, long version, Object... parametres) {
+        StringBuilder cle = new StringBuilder(type).append('#').append(version);
+        for (Object parametre : parametres) {
+            cle.append('|').append(parametre);
+        }
+        return cle.toString();
+    }
+
+    /**
+     * Lit les données d'un graphique, le construit et le dessine dans une image, hors du thread Swing
+     * Si la clé est en cache, onRendered est appelé immédiatement, sans relire les données ;
+     * sinon il est appelé sur le thread Swing, sauf si la tâche a été annulée entre-temps
+     * Le graphique affiché est une simple image : le ChartPanel interactif (zoom, info-bulles, menu)
+     * n'est créé que lorsque l'utilisateur clique dessus
+     * @param owner Le panel qui affiche le graphique (la tâche est annulée quand on le quitte)
+     * @param cle Clé de cache (voir cle)
+     * @param donnees Lecture des données, hors du thread Swing
+     * @param graphique Construit le graphique à partir des données, ou renvoie null s'il n'y a rien à afficher
+     * @param taille Taille de rendu souhaitée (taille par défaut si vide)
+     * @param onRendered Reçoit les données et le composant du graphique (null si rien à afficher)
+     * @param onError Reçoit l'erreur éventuelle sur le thread Swing
+     * @return La tâche en cours, ou null si le graphique a été servi depuis le cache
+     */
+    public static <T> Future<?> render(Object owner, String cle, Callable<T> donnees,
+                                       Function<T, JFreeChart> graphique, Dimension taille,
+                                       BiConsumer<T, JComponent> onRendered, Consumer<? super Throwable> onError) {
+        Rendu cached = getCached(cle);
+        if (cached != null) {
+            onRendered.accept(cached.<T>getDonnees(), cached.creerVue());
+            return null;
+        }
+
+        int largeur = taille != null && taille.width > 0 ? taille.width : LARGEUR_DEFAUT;
+        int hauteur = taille != null && taille.height > 0 ? taille.height : HAUTEUR_DEFAUT;
+
+        return BackgroundTasks.run(owner,
+                () -> {
+                    T data = donnees.call();
+                    JFreeChart chart = graphique.apply(data);
+                    BufferedImage image = chart != null ? chart.createBufferedImage(largeur, hauteur) : null;
+                    Rendu rendu = new Rendu(data, chart, image);
+                    putCached(cle, rendu);
+                    return rendu;
+                },
+                rendu -> onRendered.accept(rendu.<T>getDonnees(), rendu.creerVue()),
+                onError);
+    }
+
+    /**
+     * Retire du cache les graphiques d'un type de rapport, pour forcer la relecture des données
+     * @param type Type de rapport
+     */
+    public static synchronized void invalider(String type) {
+        String prefixe = type + "#";
+        CACHE.keySet().removeIf(cle -> cle.startsWith(prefixe));
+    }
+
+    private static synchronized Rendu getCached(String cle) {
+        Rendu rendu = CACHE.get(cle);
+        if (rendu != null && System.currentTimeMillis() - rendu.creation > CACHE_VALIDITE_MS) {
+            CACHE.remove(cle);
+            return null;
+        }
+        return rendu;
+    }
+
+    private static synchronized void putCached(String cle, Rendu rendu) {
+        CACHE.put(cle, rendu);
+    }
 
     /**
      * Crée un graphique camembert
@@ -27,6 +145,16 @@ public class ChartGenerator {
      * @return Un panel contenant le graphique
      */
     public static ChartPanel createPieChart(String title, Map<String, Double> data) {
+        return creerPanel(buildPieChart(title, data));
+    }
+
+    /**
+     * Construit un graphique camembert, sans composant Swing (utilisable hors du thread Swing)
+     * @param title Titre du graphique
+     * @param data Données à afficher (clé = nom de section, valeur = valeur)
+     * @return Le graphique
+     */
+    public static JFreeChart buildPieChart(String title, Map<String, Double> data) {
         DefaultPieDataset dataset = new DefaultPieDataset();
 
         // Ajout des données au dataset
@@ -48,10 +176,7 @@ public class ChartGenerator {
         plot.setBackgroundPaint(Color.white);
         plot.setOutlinePaint(Color.lightGray);
 
-        // Création du panel
-        ChartPanel chartPanel = new ChartPanel(chart);
-        chartPanel.setPreferredSize(new Dimension(500, 400));
-        return chartPanel;
+        return chart;
     }
 
     /**
@@ -64,6 +189,19 @@ public class ChartGenerator {
      */
     public static ChartPanel createBarChart(String title, String categoryAxisLabel,
                                             String valueAxisLabel, Map<String, Double> data) {
+        return creerPanel(buildBarChart(title, categoryAxisLabel, valueAxisLabel, data));
+    }
+
+    /**
+     * Construit un graphique à barres, sans composant Swing (utilisable hors du thread Swing)
+     * @param title Titre du graphique
+     * @param categoryAxisLabel Libellé de l'axe des catégories
+     * @param valueAxisLabel Libellé de l'axe des valeurs
+     * @param data Données à afficher (clé = nom de catégorie, valeur = valeur)
+     * @return Le graphique
+     */
+    public static JFreeChart buildBarChart(String title, String categoryAxisLabel,
+                                           String valueAxisLabel, Map<String, Double> data) {
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
 
         // Ajout des données au dataset
@@ -93,10 +231,7 @@ public class ChartGenerator {
         BarRenderer renderer = (BarRenderer) plot.getRenderer();
         renderer.setSeriesPaint(0, new Color(79, 129, 189));
 
-        // Création du panel
-        ChartPanel chartPanel = new ChartPanel(chart);
-        chartPanel.setPreferredSize(new Dimension(500, 400));
-        return chartPanel;
+        return chart;
     }
 
     /**
@@ -111,14 +246,57 @@ public class ChartGenerator {
     public static ChartPanel createLineChart(String title, String categoryAxisLabel,
                                              String valueAxisLabel, Map<String, List<Double>> data,
                                              List<String> categories) {
+        return creerPanel(buildLineChart(title, categoryAxisLabel, valueAxisLabel, data, categories));
+    }
+
+    /**
+     * Construit un graphique à lignes, sans composant Swing (utilisable hors du thread Swing)
+     * @param title Titre du graphique
+     * @param categoryAxisLabel Libellé de l'axe des catégories
+     * @param valueAxisLabel Libellé de l'axe des valeurs
+     * @param data Données à afficher (clé = nom de série, valeurs = séries de données)
+     * @param categories Liste des catégories
+     * @return Le graphique
+     */
+    public static JFreeChart buildLineChart(String title, String categoryAxisLabel,
+                                            String valueAxisLabel, Map<String, List<Double>> data,
+                                            List<String> categories) {
+        return buildLineChart(title, categoryAxisLabel, valueAxisLabel, data, categories, MAX_POINTS_DEFAUT);
+    }
+
+    /**
+     * Construit un graphique à lignes, sans composant Swing (utilisable hors du thread Swing)
+     * Une série plus longue que maxPoints est réduite par l'algorithme Largest-Triangle-Three-Buckets,
+     * qui conserve l'allure de la courbe et ses pics
+     * @param title Titre du graphique
+     * @param categoryAxisLabel Libellé de l'axe des catégories
+     * @param valueAxisLabel Libellé de l'axe des valeurs
+     * @param data Données à afficher (clé = nom de série, valeurs = séries de données)
+     * @param categories Liste des catégories
+     * @param maxPoints Nombre maximal de points tracés par série (au moins 3)
+     * @return Le graphique
+     */
+    public static JFreeChart buildLineChart(String title, String categoryAxisLabel,
+                                            String valueAxisLabel, Map<String, List<Double>> data,
+                                            List<String> categories, int maxPoints) {
+        if (maxPoints < 3) {
+            throw new IllegalArgumentException("Nombre de points invalide : " + maxPoints);
+        }
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
 
+        // Les séries partagent les mêmes catégories : on trace, pour toutes, l'union des points
+        // retenus dans chacune, afin qu'aucune courbe ne soit interrompue
+        int[] indices = indicesRetenus(data.values(), categories.size(), maxPoints);
+
         // Ajout des données au dataset
         for (Map.Entry<String, List<Double>> entry : data.entrySet()) {
             String series = entry.getKey();
             List<Double> values = entry.getValue();
 
-            for (int i = 0; i < values.size() && i < categories.size(); i++) {
+            for (int i : indices) {
+                if (i >= values.size()) {
+                    break;
+                }
                 dataset.addValue(values.get(i), series, categories.get(i));
             }
         }
@@ -142,9 +320,170 @@ public class ChartGenerator {
         plot.setDomainGridlinePaint(Color.lightGray);
         plot.setRangeGridlinePaint(Color.lightGray);
 
-        // Création du panel
+        return chart;
+    }
+
+    /**
+     * Indices des points à tracer, par ordre croissant
+     */
+    private static int[] indicesRetenus(Collection<List<Double>> series, int nbCategories, int maxPoints) {
+        boolean reduire = false;
+        for (List<Double> values : series) {
+            reduire |= Math.min(values.size(), nbCategories) > maxPoints;
+        }
+        if (!reduire) {
+            int[] tous = new int[nbCategories];
+            for (int i = 0; i < nbCategories; i++) {
+                tous[i] = i;
+            }
+            return tous;
+        }
+
+        BitSet retenus = new BitSet(nbCategories);
+        for (List<Double> values : series) {
+            int n = Math.min(values.size(), nbCategories);
+            if (n <= maxPoints) {
+                retenus.set(0, n);
+            } else {
+                for (int i : lttb(values, n, maxPoints)) {
+                    retenus.set(i);
+                }
+            }
+        }
+        return retenus.stream().toArray();
+    }
+
+    /**
+     * Largest-Triangle-Three-Buckets : réduit une série à maxPoints points
+     * Le premier et le dernier point sont conservés ; les autres sont répartis en maxPoints - 2 tranches,
+     * dans chacune desquelles on garde le point qui forme le plus grand triangle avec le point retenu
+     * dans la tranche précédente et la moyenne de la tranche suivante
+     * @param values Les valeurs (une valeur absente compte pour 0)
+     * @param n Nombre de valeurs à considérer (n > maxPoints)
+     * @param maxPoints Nombre de points à conserver (au moins 3)
+     * @return Les indices retenus, par ordre croissant
+     */
+    static int[] lttb(List<Double> values, int n, int maxPoints) {
+        int[] retenus = new int[maxPoints];
+        double tranche = (double) (n - 2) / (maxPoints - 2);
+
+        int a = 0;
+        retenus[0] = 0;
+        for (int t = 0; t < maxPoints - 2; t++) {
+            // Moyenne de la tranche suivante (le dernier point pour la dernière tranche)
+            int debutSuivante = (int) ((t + 1) * tranche) + 1;
+            int finSuivante = Math.min((int) ((t + 2) * tranche) + 1, n);
+            if (debutSuivante >= finSuivante) {
+                debutSuivante = n - 1;
+                finSuivante = n;
+            }
+            double xMoyen = 0;
+            double yMoyen = 0;
+            for (int i = debutSuivante; i < finSuivante; i++) {
+                xMoyen += i;
+                yMoyen += valeur(values, i);
+            }
+            xMoyen /= finSuivante - debutSuivante;
+            yMoyen /= finSuivante - debutSuivante;
+
+            // Point de la tranche courante formant le plus grand triangle
+            int debut = (int) (t * tranche) + 1;
+            int fin = (int) ((t + 1) * tranche) + 1;
+            double ya = valeur(values, a);
+            double aireMax = -1;
+            int choisi = debut;
+            for (int i = debut; i < fin; i++) {
+                double aire = Math.abs((a - xMoyen) * (valeur(values, i) - ya) - (a - i) * (yMoyen - ya));
+                if (aire > aireMax) {
+                    aireMax = aire;
+                    choisi = i;
+                }
+            }
+            retenus[t + 1] = choisi;
+            a = choisi;
+        }
+        retenus[maxPoints - 1] = n - 1;
+        return retenus;
+    }
+
+    private static double valeur(List<Double> values, int i) {
+        Double valeur = values.get(i);
+        return valeur != null ? valeur : 0;
+    }
+
+    private static ChartPanel creerPanel(JFreeChart chart) {
         ChartPanel chartPanel = new ChartPanel(chart);
-        chartPanel.setPreferredSize(new Dimension(500, 400));
+        chartPanel.setPreferredSize(new Dimension(LARGEUR_DEFAUT, HAUTEUR_DEFAUT));
         return chartPanel;
     }
-}
\ No newline at end of file
+
+    /**
+     * Graphique rendu hors du thread Swing, avec les données dont il est issu
+     */
+    private static final class Rendu {
+        private final Object donnees;
+        private final JFreeChart chart;
+        private final BufferedImage image;
+        private final long creation = System.currentTimeMillis();
+
+        private Rendu(Object donnees, JFreeChart chart, BufferedImage image) {
+            this.donnees = donnees;
+            this.chart = chart;
+            this.image = image;
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> T getDonnees() {
+            return (T) donnees;
+        }
+
+        private JComponent creerVue() {
+            return image != null ? new VueGraphique(chart, image) : null;
+        }
+    }
+
+    /**
+     * Affiche l'image d'un graphique, remplacée par un ChartPanel interactif au premier clic
+     */
+    private static final class VueGraphique extends JPanel {
+        private final BufferedImage image;
+
+        private VueGraphique(JFreeChart chart, BufferedImage image) {
+            super(new BorderLayout());
+            this.image = image;
+            setBackground(Color.white);
+            setPreferredSize(new Dimension(LARGEUR_DEFAUT, HAUTEUR_DEFAUT));
+            setToolTipText("Cliquez pour explorer le graphique (zoom, info-bulles, enregistrement)");
+            setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+
+            addMouseListener(new MouseAdapter() {
+                @Override
+                public void mousePressed(MouseEvent e) {
+                    removeMouseListener(this);
+                    setToolTipText(null);
+                    setCursor(Cursor.getDefaultCursor());
+                    add(creerPanel(chart), BorderLayout.CENTER);
+                    revalidate();
+                    repaint();
+                }
+            });
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            if (getComponentCount() > 0) {
+                return;
+            }
+
+            // L'image est ajustée à la taille du panel en conservant ses proportions
+            double echelle = Math.min((double) getWidth() / image.getWidth(), (double) getHeight() / image.getHeight());
+            int largeur = (int) Math.round(image.getWidth() * echelle);
+            int hauteur = (int) Math.round(image.getHeight() * echelle);
+            Graphics2D g2 = (Graphics2D) g.create();
+            g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g2.drawImage(image, (getWidth() - largeur) / 2, (getHeight() - hauteur) / 2, largeur, hauteur, null);
+            g2.dispose();
+        }
+    }
+}
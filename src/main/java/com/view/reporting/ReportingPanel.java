@@ -1,13 +1,12 @@
 package main.java.com.view.reporting;
 
-import main.java.com.controller.CommandeController;
-import main.java.com.dao.ArticleDAO;
+import main.java.com.dao.CommandeDAO;
 import main.java.com.dao.DAOFactory;
-import main.java.com.dao.MarqueDAO;
-import main.java.com.model.Article;
-import main.java.com.model.Commande;
-import main.java.com.model.Marque;
+import main.java.com.dao.StatistiquesDAO;
+import main.java.com.view.common.BackgroundTasks;
+import main.java.com.util.CsvWriter;
 import main.java.com.view.common.MainFrame;
+import org.jfree.chart.JFreeChart;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -15,36 +14,57 @@ import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Panel pour générer des rapports
+ * Les montants sont lus dans les tables de ventes pré-agrégées (voir StatistiquesDAO)
  */
 public class ReportingPanel extends JPanel {
+    // Nombre d'articles et de marques détaillés dans les rapports
+    private static final int MAX_ARTICLES = 20;
+    private static final int MAX_MARQUES = 10;
+
+    private static final DateTimeFormatter FORMAT_MOIS = DateTimeFormatter.ofPattern("MMM yyyy", Locale.FRENCH);
+    private static final DateTimeFormatter FORMAT_JOUR = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
     private MainFrame mainFrame;
-    private CommandeController commandeController;
-    private ArticleDAO articleDAO;
-    private MarqueDAO marqueDAO;
+    private StatistiquesDAO statistiquesDAO;
+    private CommandeDAO commandeDAO;
 
     private JTabbedPane tabbedPane;
     private JComboBox<String> reportTypeComboBox;
     private JButton generateButton;
     private JButton exportButton;
+    private JButton exportDetailButton;
+    private JButton annulerExportButton;
+    private JProgressBar exportProgressBar;
     private JPanel chartPanel;
 
+    // Demande d'arrêt de l'export détaillé en cours (null si aucun export en cours)
+    private AtomicBoolean exportAnnule;
+
+    // Données du dernier rapport généré (libellé -> montant), reprises par l'export
+    private Map<String, Double> donneesRapport;
+    private String colonneRapport;
+
     /**
      * Constructeur du panel de reporting
      * @param mainFrame La fenêtre principale
      */
     public ReportingPanel(MainFrame mainFrame) {
         this.mainFrame = mainFrame;
-        this.commandeController = new CommandeController();
-        this.articleDAO = DAOFactory.getArticleDAO();
-        this.marqueDAO = DAOFactory.getMarqueDAO();
+        this.statistiquesDAO = DAOFactory.getStatistiquesDAO();
+        this.commandeDAO = DAOFactory.getCommandeDAO();
 
         initComponents();
         setupLayout();
@@ -58,9 +78,10 @@ public class ReportingPanel extends JPanel {
         tabbedPane = new JTabbedPane();
 
         String[] reportTypes = {
-                "Ventes par catégorie",
+                "Ventes par article",
                 "Ventes par marque",
-                "Évolution des ventes"
+                "Évolution des ventes",
+                "Évolution quotidienne des ventes"
         };
 
         reportTypeComboBox = new JComboBox<>(reportTypes);
@@ -68,6 +89,13 @@ public class ReportingPanel extends JPanel {
         exportButton = new JButton("Exporter");
         exportButton.setEnabled(false);
 
+        exportDetailButton = new JButton("Exporter le détail des ventes");
+        annulerExportButton = new JButton("Annuler l'export");
+        annulerExportButton.setVisible(false);
+        exportProgressBar = new JProgressBar(0, 100);
+        exportProgressBar.setStringPainted(true);
+        exportProgressBar.setVisible(false);
+
         chartPanel = new JPanel(new BorderLayout());
         chartPanel.setBorder(BorderFactory.createTitledBorder("Graphique"));
     }
@@ -92,10 +120,17 @@ public class ReportingPanel extends JPanel {
         controlPanel.add(generateButton);
         controlPanel.add(exportButton);
 
+        // Panel de l'export détaillé
+        JPanel exportPanel = new JPanel();
+        exportPanel.add(exportDetailButton);
+        exportPanel.add(exportProgressBar);
+        exportPanel.add(annulerExportButton);
+
         // Panel principal
         JPanel mainPanel = new JPanel(new BorderLayout());
         mainPanel.add(controlPanel, BorderLayout.NORTH);
         mainPanel.add(chartPanel, BorderLayout.CENTER);
+        mainPanel.add(exportPanel, BorderLayout.SOUTH);
 
         // Assemblage final
         add(topPanel, BorderLayout.NORTH);
@@ -119,100 +154,191 @@ public class ReportingPanel extends JPanel {
                 exportReport();
             }
         });
+
+        exportDetailButton.addActionListener(e -> exportDetail());
+
+        annulerExportButton.addActionListener(e -> {
+            if (exportAnnule != null) {
+                exportAnnule.set(true);
+                annulerExportButton.setEnabled(false);
+            }
+        });
     }
 
     /**
      * Génère un rapport selon le type sélectionné
+     * Les données sont lues et le graphique dessiné en arrière-plan ; un rapport déjà généré
+     * sur les mêmes ventes est réaffiché depuis le cache
      */
     private void generateReport() {
         String reportType = (String) reportTypeComboBox.getSelectedItem();
+        long version = StatistiquesDAO.getVersion();
 
-        // Vide le panel du graphique
-        chartPanel.removeAll();
+        // Un rapport encore en cours de calcul est abandonné
+        BackgroundTasks.cancelAll(this);
+        exportButton.setEnabled(false);
+        afficher(new JLabel("Calcul en cours...", JLabel.CENTER));
 
-        if ("Ventes par catégorie".equals(reportType)) {
-            generateSalesByCategoryReport();
+        if ("Ventes par article".equals(reportType)) {
+            ChartGenerator.render(this, ChartGenerator.cle("reporting.articles", version, MAX_ARTICLES),
+                    () -> statistiquesDAO.ventesParArticle(null, null, MAX_ARTICLES),
+                    this::generateSalesByArticleReport, chartPanel.getSize(),
+                    (data, graphique) -> afficherRapport(graphique, "Article", data), this::afficherErreur);
         } else if ("Ventes par marque".equals(reportType)) {
-            generateSalesByBrandReport();
+            ChartGenerator.render(this, ChartGenerator.cle("reporting.marques", version, MAX_MARQUES),
+                    () -> statistiquesDAO.ventesParMarque(null, null, MAX_MARQUES),
+                    this::generateSalesByBrandReport, chartPanel.getSize(),
+                    (data, graphique) -> afficherRapport(graphique, "Marque", data), this::afficherErreur);
         } else if ("Évolution des ventes".equals(reportType)) {
-            generateSalesEvolutionReport();
+            ChartGenerator.render(this, ChartGenerator.cle("reporting.evolution", version),
+                    () -> formaterMois(statistiquesDAO.ventesParMois(null, null)),
+                    this::generateSalesEvolutionReport, chartPanel.getSize(),
+                    (data, graphique) -> afficherRapport(graphique, "Mois", data), this::afficherErreur);
+        } else if ("Évolution quotidienne des ventes".equals(reportType)) {
+            ChartGenerator.render(this, ChartGenerator.cle("reporting.quotidien", version),
+                    () -> formaterJours(statistiquesDAO.ventesParJour(null, null)),
+                    this::generateDailySalesReport, chartPanel.getSize(),
+                    (data, graphique) -> afficherRapport(graphique, "Jour", data), this::afficherErreur);
         }
-
-        // Rafraîchit le panel
-        chartPanel.revalidate();
-        chartPanel.repaint();
-
-        // Active le bouton d'export
-        exportButton.setEnabled(true);
     }
 
     /**
-     * Génère un rapport de ventes par catégorie
+     * Génère un rapport des articles les plus vendus
+     * @param data Montant par article
+     * @return Le graphique, null s'il n'y a aucune vente
      */
-    private void generateSalesByCategoryReport() {
-        // Dans une implémentation réelle, récupérer les données de la base de données
-        Map<String, Double> data = new HashMap<>();
-        data.put("Bureautique", 4800.0);
-        data.put("Électronique", 9200.0);
-        data.put("Accessoires", 3500.0);
-        data.put("Vêtements", 7800.0);
+    private JFreeChart generateSalesByArticleReport(Map<String, Double> data) {
+        if (data.isEmpty()) {
+            return null;
+        }
 
         // Création du graphique
-        JPanel barChart = ChartGenerator.createBarChart(
-                "Ventes par catégorie",
-                "Catégorie",
+        return ChartGenerator.buildBarChart(
+                "Ventes par article (" + MAX_ARTICLES + " meilleures ventes)",
+                "Article",
                 "Montant (€)",
                 data
         );
-
-        // Ajout du graphique au panel
-        chartPanel.add(barChart, BorderLayout.CENTER);
     }
 
     /**
      * Génère un rapport de ventes par marque
+     * @param data Montant par marque
+     * @return Le graphique, null s'il n'y a aucune vente
      */
-    private void generateSalesByBrandReport() {
-        // Dans une implémentation réelle, récupérer les données de la base de données
-        Map<String, Double> data = new HashMap<>();
-        data.put("BIC", 8900.0);
-        data.put("Oxford", 5700.0);
-        data.put("Samsung", 12300.0);
-        data.put("Sony", 9800.0);
-        data.put("Anker", 6500.0);
+    private JFreeChart generateSalesByBrandReport(Map<String, Double> data) {
+        if (data.isEmpty()) {
+            return null;
+        }
 
         // Création du graphique
-        JPanel pieChart = ChartGenerator.createPieChart(
+        return ChartGenerator.buildPieChart(
                 "Répartition des ventes par marque",
                 data
         );
-
-        // Ajout du graphique au panel
-        chartPanel.add(pieChart, BorderLayout.CENTER);
     }
 
     /**
      * Génère un rapport d'évolution des ventes
+     * @param data Montant par mois, libellés déjà formatés
+     * @return Le graphique, null s'il n'y a aucune vente
      */
-    private void generateSalesEvolutionReport() {
-        // Dans une implémentation réelle, récupérer les données de la base de données
-        Map<String, List<Double>> data = new HashMap<>();
-        List<Double> salesValues = Arrays.asList(12500.0, 14200.0, 15800.0, 16900.0, 18300.0, 20100.0);
-        data.put("Ventes", salesValues);
+    private JFreeChart generateSalesEvolutionReport(Map<String, Double> data) {
+        if (data.isEmpty()) {
+            return null;
+        }
 
-        List<String> months = Arrays.asList("Janvier", "Février", "Mars", "Avril", "Mai", "Juin");
+        Map<String, List<Double>> series = new HashMap<>();
+        series.put("Ventes", new ArrayList<>(data.values()));
+        List<String> months = new ArrayList<>(data.keySet());
 
         // Création du graphique
-        JPanel lineChart = ChartGenerator.createLineChart(
+        return ChartGenerator.buildLineChart(
                 "Évolution des ventes mensuelles",
                 "Mois",
                 "Montant (€)",
-                data,
+                series,
                 months
         );
+    }
+
+    /**
+     * Génère un rapport d'évolution quotidienne des ventes
+     * Sur plusieurs années, la courbe est réduite par ChartGenerator au nombre de points par défaut
+     * @param data Montant par jour, libellés déjà formatés
+     * @return Le graphique, null s'il n'y a aucune vente
+     */
+    private JFreeChart generateDailySalesReport(Map<String, Double> data) {
+        if (data.isEmpty()) {
+            return null;
+        }
+
+        Map<String, List<Double>> series = new HashMap<>();
+        series.put("Ventes", new ArrayList<>(data.values()));
+        List<String> days = new ArrayList<>(data.keySet());
+
+        // Création du graphique
+        return ChartGenerator.buildLineChart(
+                "Évolution quotidienne des ventes",
+                "Jour",
+                "Montant (€)",
+                series,
+                days
+        );
+    }
+
+    /**
+     * Remplace les clés "yyyy-MM" par le libellé du mois
+     */
+    private static Map<String, Double> formaterMois(Map<String, Double> ventes) {
+        Map<String, Double> data = new LinkedHashMap<>();
+        for (Map.Entry<String, Double> entry : ventes.entrySet()) {
+            data.put(YearMonth.parse(entry.getKey()).format(FORMAT_MOIS), entry.getValue());
+        }
+        return data;
+    }
 
-        // Ajout du graphique au panel
-        chartPanel.add(lineChart, BorderLayout.CENTER);
+    /**
+     * Remplace les clés "yyyy-MM-dd" par la date au format français
+     */
+    private static Map<String, Double> formaterJours(Map<String, Double> ventes) {
+        Map<String, Double> data = new LinkedHashMap<>();
+        for (Map.Entry<String, Double> entry : ventes.entrySet()) {
+            data.put(LocalDate.parse(entry.getKey()).format(FORMAT_JOUR), entry.getValue());
+        }
+        return data;
+    }
+
+    /**
+     * Affiche le rapport généré et le rend disponible pour l'export
+     * @param graphique Le graphique, null s'il n'y a aucune vente
+     */
+    private void afficherRapport(JComponent graphique, String colonne, Map<String, Double> data) {
+        donneesRapport = data;
+        colonneRapport = colonne;
+
+        if (graphique == null) {
+            afficher(new JLabel("Aucune vente enregistrée.", JLabel.CENTER));
+            return;
+        }
+        afficher(graphique);
+
+        // Active le bouton d'export
+        exportButton.setEnabled(true);
+    }
+
+    private void afficherErreur(Throwable e) {
+        afficher(new JLabel("Erreur lors de la génération du rapport : " + e.getMessage(), JLabel.CENTER));
+    }
+
+    /**
+     * Remplace le contenu du panel du graphique
+     */
+    private void afficher(JComponent contenu) {
+        chartPanel.removeAll();
+        chartPanel.add(contenu, BorderLayout.CENTER);
+        chartPanel.revalidate();
+        chartPanel.repaint();
     }
 
     /**
@@ -230,33 +356,16 @@ public class ReportingPanel extends JPanel {
         if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
             File file = fileChooser.getSelectedFile();
 
-            try (FileWriter writer = new FileWriter(file)) {
+            try (CsvWriter csv = new CsvWriter(file.toPath())) {
                 // Écrit l'en-tête du fichier CSV
-                writer.write("Rapport: " + reportType + "\n");
-                writer.write("Date de génération: " + new SimpleDateFormat("dd/MM/yyyy HH:mm").format(new Date()) + "\n\n");
-
-                // Écrit les données selon le type de rapport
-                if ("Ventes par catégorie".equals(reportType)) {
-                    writer.write("Catégorie,Montant\n");
-                    writer.write("Bureautique,4800.0\n");
-                    writer.write("Électronique,9200.0\n");
-                    writer.write("Accessoires,3500.0\n");
-                    writer.write("Vêtements,7800.0\n");
-                } else if ("Ventes par marque".equals(reportType)) {
-                    writer.write("Marque,Montant\n");
-                    writer.write("BIC,8900.0\n");
-                    writer.write("Oxford,5700.0\n");
-                    writer.write("Samsung,12300.0\n");
-                    writer.write("Sony,9800.0\n");
-                    writer.write("Anker,6500.0\n");
-                } else if ("Évolution des ventes".equals(reportType)) {
-                    writer.write("Mois,Montant\n");
-                    writer.write("Janvier,12500.0\n");
-                    writer.write("Février,14200.0\n");
-                    writer.write("Mars,15800.0\n");
-                    writer.write("Avril,16900.0\n");
-                    writer.write("Mai,18300.0\n");
-                    writer.write("Juin,20100.0\n");
+                csv.ligne("Rapport", reportType);
+                csv.ligne("Date de génération", new SimpleDateFormat("dd/MM/yyyy HH:mm").format(new Date()));
+                csv.finLigne();
+
+                // Écrit les données du rapport affiché
+                csv.ligne(colonneRapport, "Montant");
+                for (Map.Entry<String, Double> entry : donneesRapport.entrySet()) {
+                    csv.ligne(entry.getKey(), entry.getValue());
                 }
 
                 JOptionPane.showMessageDialog(this,
@@ -271,4 +380,109 @@ public class ReportingPanel extends JPanel {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Exporte le détail des ventes, une ligne par ligne de commande
+     * Les lignes sont lues et écrites au fil de l'eau en arrière-plan ; l'export continue si l'on quitte
+     * le panel et peut être interrompu par le bouton d'annulation (le fichier partiel est alors supprimé)
+     */
+    private void exportDetail() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Exporter le détail des ventes");
+        fileChooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
+        fileChooser.setSelectedFile(new File("Detail_des_ventes.csv"));
+
+        if (fileChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path path = fileChooser.getSelectedFile().toPath();
+
+        AtomicBoolean annule = new AtomicBoolean();
+        exportAnnule = annule;
+        debutExport();
+
+        BackgroundTasks.run(null,
+                () -> {
+                    long total = commandeDAO.compterLignesVentes();
+                    SwingUtilities.invokeLater(() -> afficherProgression(0, total));
+
+                    long lignes;
+                    try (CsvWriter csv = new CsvWriter(path)) {
+                        lignes = commandeDAO.exporterLignesVentes(csv, annule::get,
+                                ecrites -> SwingUtilities.invokeLater(() -> afficherProgression(ecrites, total)));
+                    } catch (IOException e) {
+                        Files.deleteIfExists(path);
+                        throw e;
+                    }
+                    if (lignes < 0 || annule.get()) {
+                        Files.deleteIfExists(path);
+                    }
+                    return lignes;
+                },
+                lignes -> {
+                    finExport();
+                    if (annule.get()) {
+                        JOptionPane.showMessageDialog(this,
+                                "Export annulé, le fichier partiel a été supprimé.",
+                                "Export annulé",
+                                JOptionPane.INFORMATION_MESSAGE);
+                    } else if (lignes < 0) {
+                        JOptionPane.showMessageDialog(this,
+                                "Erreur lors de la lecture des ventes, le fichier n'a pas été créé.",
+                                "Erreur",
+                                JOptionPane.ERROR_MESSAGE);
+                    } else {
+                        JOptionPane.showMessageDialog(this,
+                                lignes + " lignes exportées dans " + path.toAbsolutePath(),
+                                "Export réussi",
+                                JOptionPane.INFORMATION_MESSAGE);
+                    }
+                },
+                e -> {
+                    finExport();
+                    JOptionPane.showMessageDialog(this,
+                            "Erreur lors de l'export du détail des ventes: " + e.getMessage(),
+                            "Erreur",
+                            JOptionPane.ERROR_MESSAGE);
+                });
+    }
+
+    private void debutExport() {
+        exportDetailButton.setEnabled(false);
+        exportProgressBar.setIndeterminate(true);
+        exportProgressBar.setValue(0);
+        exportProgressBar.setString("Préparation...");
+        exportProgressBar.setVisible(true);
+        annulerExportButton.setEnabled(true);
+        annulerExportButton.setVisible(true);
+        revalidate();
+    }
+
+    private void finExport() {
+        exportAnnule = null;
+        exportDetailButton.setEnabled(true);
+        exportProgressBar.setVisible(false);
+        annulerExportButton.setVisible(false);
+        revalidate();
+    }
+
+    /**
+     * Met à jour la barre de progression de l'export détaillé
+     * @param ecrites Nombre de lignes déjà écrites
+     * @param total Nombre de lignes à écrire, négatif s'il est inconnu
+     */
+    private void afficherProgression(long ecrites, long total) {
+        if (!exportProgressBar.isVisible()) {
+            return;
+        }
+        if (total <= 0) {
+            exportProgressBar.setIndeterminate(true);
+            exportProgressBar.setString(ecrites + " lignes");
+            return;
+        }
+        // Des commandes passées pendant l'export peuvent dépasser le total compté au départ
+        exportProgressBar.setIndeterminate(false);
+        exportProgressBar.setValue((int) Math.min(100, ecrites * 100 / total));
+        exportProgressBar.setString(Math.min(ecrites, total) + " / " + total + " lignes");
+    }
+}
@@ -0,0 +1,7 @@
+-- Index de la pagination sur clé du catalogue (ArticleDAO.findPage, ordres définis par ArticleSort).
+-- Chaque page lit l'index à partir du curseur (clé, id) et s'arrête après LIMIT lignes, sans tri
+-- de toute la table ; le tri par prix décroissant parcourt idx_article_prix_id à l'envers.
+-- Le tri par identifiant seul utilise la clé primaire.
+
+CREATE INDEX idx_article_nom_id ON article (nom, id);
+CREATE INDEX idx_article_prix_id ON article (prix_unitaire, id);
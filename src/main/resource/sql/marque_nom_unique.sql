@@ -0,0 +1,12 @@
+-- Unicité du nom de marque, garantie par la base : MarqueDAO.createAvecNomUnique s'appuie sur cette clé
+-- pour détecter une collision à l'insertion, au lieu de chercher le nom avant chaque création.
+-- Avec la collation par défaut (insensible à la casse), "Nike" et "NIKE" sont considérés identiques,
+-- comme dans l'index des noms tenu en mémoire par MarqueDAO.
+
+-- Doublons à renommer avant la mise en place de la contrainte
+SELECT nom, COUNT(*) AS nombre
+FROM marque
+GROUP BY nom
+HAVING COUNT(*) > 1;
+
+ALTER TABLE marque ADD CONSTRAINT uk_marque_nom UNIQUE (nom);
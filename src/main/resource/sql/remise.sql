@@ -0,0 +1,22 @@
+-- Remises (codes promotionnels), lues et écrites par RemiseDAO
+-- Le code est unique (comparaison insensible à la casse avec la collation par défaut) : RemiseDAO
+-- le retrouve dans son index en mémoire, et sinon par cette clé, sans parcourir la table.
+-- Une date de début ou de fin absente (NULL) laisse la période ouverte de ce côté.
+
+CREATE TABLE IF NOT EXISTS remise (
+    id INT NOT NULL AUTO_INCREMENT,
+    code VARCHAR(50) NOT NULL,
+    pourcentage DECIMAL(5, 2) NOT NULL DEFAULT 0,
+    montant_fixe DECIMAL(10, 2) NOT NULL DEFAULT 0,
+    date_debut DATETIME NULL,
+    date_fin DATETIME NULL,
+    quantite_min INT NOT NULL DEFAULT 1,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_remise_code (code),
+    KEY idx_remise_periode (date_debut, date_fin)
+);
+
+-- Table créée avant l'ouverture des périodes
+ALTER TABLE remise
+    MODIFY date_debut DATETIME NULL,
+    MODIFY date_fin DATETIME NULL;
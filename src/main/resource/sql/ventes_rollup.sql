@@ -0,0 +1,40 @@
+-- Tables de ventes pré-agrégées, tenues à jour par CommandeDAO dans la transaction de chaque commande
+-- (ajout à la création, retrait à l'annulation). Les statistiques lisent ces tables au lieu de ligne_commande.
+
+CREATE TABLE IF NOT EXISTS ventes_jour_article_marque (
+    jour DATE NOT NULL,
+    article_marque_id INT NOT NULL,
+    quantite INT NOT NULL DEFAULT 0,
+    montant DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (jour, article_marque_id),
+    KEY idx_vjam_article_marque (article_marque_id),
+    CONSTRAINT fk_vjam_article_marque FOREIGN KEY (article_marque_id) REFERENCES article_marque (id)
+);
+
+CREATE TABLE IF NOT EXISTS ventes_mois_marque (
+    mois DATE NOT NULL, -- premier jour du mois
+    marque_id INT NOT NULL,
+    quantite INT NOT NULL DEFAULT 0,
+    montant DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (mois, marque_id),
+    KEY idx_vmm_marque (marque_id),
+    CONSTRAINT fk_vmm_marque FOREIGN KEY (marque_id) REFERENCES marque (id)
+);
+
+-- Reconstruction complète depuis l'historique (mise en place, ou après une correction manuelle des commandes)
+-- A exécuter application arrêtée : les commandes passées pendant le calcul ne seraient pas comptées
+DELETE FROM ventes_jour_article_marque;
+DELETE FROM ventes_mois_marque;
+
+INSERT INTO ventes_jour_article_marque (jour, article_marque_id, quantite, montant)
+SELECT DATE(c.date_commande), lc.article_marque_id, SUM(lc.quantite), SUM(lc.prix_total)
+FROM ligne_commande lc
+JOIN commande c ON c.id = lc.commande_id
+WHERE c.statut <> 'annulee'
+GROUP BY DATE(c.date_commande), lc.article_marque_id;
+
+INSERT INTO ventes_mois_marque (mois, marque_id, quantite, montant)
+SELECT DATE_FORMAT(v.jour, '%Y-%m-01'), am.marque_id, SUM(v.quantite), SUM(v.montant)
+FROM ventes_jour_article_marque v
+JOIN article_marque am ON am.id = v.article_marque_id
+GROUP BY DATE_FORMAT(v.jour, '%Y-%m-01'), am.marque_id;